@@ -17,6 +17,8 @@
 package network.aika;
 
 import network.aika.elements.activations.Activation;
+import network.aika.training.TrainingBackend;
+import network.aika.utils.BetaQuantile;
 
 /**
  *
@@ -27,13 +29,23 @@ public class Config {
 
     private double annealStepSize = 0.05;
 
+    private boolean adaptiveAnnealingEnabled = true;
+
     private double learnRate;
 
     private double learnRateForAbstract;
 
+    private int miniBatchSize = 1;
+
+    private BetaQuantile betaQuantile = BetaQuantile.CACHED;
+
+    private TrainingBackend trainingBackend = TrainingBackend.FIELD_GRAPH;
+
     private boolean trainingEnabled;
     private boolean countingEnabled;
+    private boolean parallelCountingEnabled;
     private boolean metaInstantiationEnabled;
+    private boolean inferenceOnly;
 
 
     public double getLearnRate(boolean isAbstract) {
@@ -59,6 +71,31 @@ public class Config {
         return this;
     }
 
+    public int getMiniBatchSize() {
+        return miniBatchSize;
+    }
+
+    /**
+     * Number of documents whose parameter updates are accumulated before they are applied to the model.
+     * A size of one applies the updates immediately during the training phase of each document.
+     */
+    public Config setMiniBatchSize(int miniBatchSize) {
+        this.miniBatchSize = miniBatchSize;
+        return this;
+    }
+
+    public BetaQuantile getBetaQuantile() {
+        return betaQuantile;
+    }
+
+    /**
+     * Selects how the Beta-quantile probability bounds of the surprisal are computed.
+     */
+    public Config setBetaQuantile(BetaQuantile betaQuantile) {
+        this.betaQuantile = betaQuantile;
+        return this;
+    }
+
     public double getAnnealStepSize() {
         return annealStepSize;
     }
@@ -68,6 +105,19 @@ public class Config {
         return this;
     }
 
+    public boolean isAdaptiveAnnealingEnabled() {
+        return adaptiveAnnealingEnabled;
+    }
+
+    /**
+     * Lets the annealing step size adapt to the changes of the fired set and stops the annealing early,
+     * once no further decision flips are expected. See {@link network.aika.steps.thought.AnnealingController}.
+     */
+    public Config setAdaptiveAnnealingEnabled(boolean adaptiveAnnealingEnabled) {
+        this.adaptiveAnnealingEnabled = adaptiveAnnealingEnabled;
+        return this;
+    }
+
     public Double getAlpha() {
         return alpha;
     }
@@ -78,7 +128,27 @@ public class Config {
     }
 
     public boolean isTrainingEnabled() {
-        return trainingEnabled;
+        return trainingEnabled && !inferenceOnly;
+    }
+
+    /**
+     * True if the gradient and weight update fields of activations and links need to be connected.
+     */
+    public boolean isFieldGraphTrainingEnabled() {
+        return isTrainingEnabled() && trainingBackend == TrainingBackend.FIELD_GRAPH;
+    }
+
+    public TrainingBackend getTrainingBackend() {
+        return trainingBackend;
+    }
+
+    /**
+     * Selects whether gradients are propagated through the field graph or computed by a single backward pass
+     * once inference and annealing are finished.
+     */
+    public Config setTrainingBackend(TrainingBackend trainingBackend) {
+        this.trainingBackend = trainingBackend;
+        return this;
     }
 
     public Config setTrainingEnabled(boolean trainingEnabled) {
@@ -92,12 +162,24 @@ public class Config {
     }
 
     public boolean isCountingEnabled() {
-        return countingEnabled;
+        return countingEnabled && !inferenceOnly;
+    }
+
+    /**
+     * Processes the counting phase of a thought in parallel, partitioned by neuron.
+     */
+    public Config setParallelCountingEnabled(boolean parallelCountingEnabled) {
+        this.parallelCountingEnabled = parallelCountingEnabled;
+        return this;
+    }
+
+    public boolean isParallelCountingEnabled() {
+        return parallelCountingEnabled;
     }
 
 
     public boolean isMetaInstantiationEnabled() {
-        return metaInstantiationEnabled;
+        return metaInstantiationEnabled && !inferenceOnly;
     }
 
     public Config setMetaInstantiationEnabled(boolean metaInstantiationEnabled) {
@@ -105,6 +187,20 @@ public class Config {
         return this;
     }
 
+    public boolean isInferenceOnly() {
+        return inferenceOnly;
+    }
+
+    /**
+     * Read-only serving mode. Training, counting and meta instantiation are disabled regardless of their
+     * own settings. Activations are created without gradient fields and neither training nor save steps
+     * are scheduled, so the TRAINING and SAVE phases of a thought remain empty.
+     */
+    public Config setInferenceOnly(boolean inferenceOnly) {
+        this.inferenceOnly = inferenceOnly;
+        return this;
+    }
+
     public String getLabel(Activation act) {
         return "";
     }
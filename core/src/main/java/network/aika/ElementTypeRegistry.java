@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.elements.neurons.*;
+import network.aika.elements.synapses.*;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Registry of the neuron and synapse types of a model. Each type has a compact numeric id, which is used
+ * in the serialized form of neurons and synapses, and a pre-bound constructor. This avoids the class lookup
+ * and the reflective constructor call when elements are reactivated or templates are instantiated.
+ *
+ * The built-in types are registered in a fixed order, custom types need to be registered in the same order
+ * before a stored model is opened. Types that are not registered are still supported: they are written by
+ * class name and their constructor is resolved once and cached on first use.
+ *
+ * @author Lukas Molzberger
+ */
+public class ElementTypeRegistry {
+
+    public static final short UNREGISTERED_TYPE_ID = -1;
+
+    private final List<ElementType> typesById = new ArrayList<>();
+    private final Map<Class<?>, ElementType> typesByClass = new IdentityHashMap<>();
+    private final Map<String, ElementType> typesByName = new HashMap<>();
+
+    public ElementTypeRegistry() {
+        registerNeuronTypes();
+        registerSynapseTypes();
+    }
+
+    private void registerNeuronTypes() {
+        register(PatternNeuron.class, PatternNeuron::new);
+        register(TokenNeuron.class, TokenNeuron::new);
+        register(BindingNeuron.class, BindingNeuron::new);
+        register(InhibitoryNeuron.class, InhibitoryNeuron::new);
+        register(PatternCategoryNeuron.class, PatternCategoryNeuron::new);
+        register(BindingCategoryNeuron.class, BindingCategoryNeuron::new);
+        register(InhibitoryCategoryNeuron.class, InhibitoryCategoryNeuron::new);
+        register(TokenPositionRelationNeuron.class, TokenPositionRelationNeuron::new);
+        register(CharPositionRelationNeuron.class, CharPositionRelationNeuron::new);
+    }
+
+    private void registerSynapseTypes() {
+        register(PatternSynapse.class, PatternSynapse::new);
+        register(InputPatternSynapse.class, InputPatternSynapse::new);
+        register(SamePatternSynapse.class, SamePatternSynapse::new);
+        register(RelationInputSynapse.class, RelationInputSynapse::new);
+        register(ReversePatternSynapse.class, ReversePatternSynapse::new);
+        register(PositiveFeedbackSynapse.class, PositiveFeedbackSynapse::new);
+        register(NegativeFeedbackSynapse.class, NegativeFeedbackSynapse::new);
+        register(InhibitorySynapse.class, InhibitorySynapse::new);
+        register(PrimaryInhibitorySynapse.class, PrimaryInhibitorySynapse::new);
+        register(PatternCategorySynapse.class, PatternCategorySynapse::new);
+        register(BindingCategorySynapse.class, BindingCategorySynapse::new);
+        register(InhibitoryCategorySynapse.class, InhibitoryCategorySynapse::new);
+        register(PatternCategoryInputSynapse.class, PatternCategoryInputSynapse::new);
+        register(BindingCategoryInputSynapse.class, BindingCategoryInputSynapse::new);
+        register(InhibitoryCategoryInputSynapse.class, InhibitoryCategoryInputSynapse::new);
+    }
+
+    public synchronized <T> short register(Class<T> clazz, Supplier<? extends T> constructor) {
+        ElementType existing = typesByClass.get(clazz);
+        if(existing != null && existing.id != UNREGISTERED_TYPE_ID)
+            return existing.id;
+
+        if(typesById.size() > Short.MAX_VALUE)
+            throw new IllegalStateException("Too many element types");
+
+        ElementType et = new ElementType((short) typesById.size(), constructor);
+        typesById.add(et);
+        typesByClass.put(clazz, et);
+        typesByName.put(clazz.getName(), et);
+        return et.id;
+    }
+
+    /**
+     * @return the numeric id of the given type or {@link #UNREGISTERED_TYPE_ID} if the type is not registered
+     */
+    public synchronized short getTypeId(Class<?> clazz) {
+        ElementType et = typesByClass.get(clazz);
+        return et != null ?
+                et.id :
+                UNREGISTERED_TYPE_ID;
+    }
+
+    public void writeType(DataOutput out, Class<?> clazz) throws IOException {
+        short typeId = getTypeId(clazz);
+        out.writeShort(typeId);
+        if(typeId == UNREGISTERED_TYPE_ID)
+            out.writeUTF(clazz.getName());
+    }
+
+    public <T> T readInstance(DataInput in) throws IOException {
+        short typeId = in.readShort();
+        return typeId == UNREGISTERED_TYPE_ID ?
+                newInstance(in.readUTF()) :
+                newInstance(typeId);
+    }
+
+    public synchronized <T> T newInstance(short typeId) {
+        if(typeId < 0 || typeId >= typesById.size())
+            throw new IllegalArgumentException("Unknown element type id: " + typeId);
+
+        return (T) typesById.get(typeId).constructor.get();
+    }
+
+    public <T> T newInstance(Class<T> clazz) {
+        return (T) lookup(clazz).constructor.get();
+    }
+
+    public <T> T newInstance(String className) {
+        return (T) lookup(className).constructor.get();
+    }
+
+    private synchronized ElementType lookup(Class<?> clazz) {
+        ElementType et = typesByClass.get(clazz);
+        if(et == null) {
+            et = createUnregisteredType(clazz);
+            typesByClass.put(clazz, et);
+            typesByName.put(clazz.getName(), et);
+        }
+        return et;
+    }
+
+    private synchronized ElementType lookup(String className) {
+        ElementType et = typesByName.get(className);
+        if(et != null)
+            return et;
+
+        try {
+            return lookup(getClass().getClassLoader().loadClass(className));
+        } catch (ClassNotFoundException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static ElementType createUnregisteredType(Class<?> clazz) {
+        MethodHandle constructor;
+        try {
+            constructor = MethodHandles.publicLookup()
+                    .findConstructor(clazz, MethodType.methodType(void.class));
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+
+        return new ElementType(UNREGISTERED_TYPE_ID, () -> {
+            try {
+                return constructor.invoke();
+            } catch (Throwable e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    private static class ElementType {
+        final short id;
+        final Supplier<?> constructor;
+
+        ElementType(short id, Supplier<?> constructor) {
+            this.id = id;
+            this.constructor = constructor;
+        }
+    }
+}
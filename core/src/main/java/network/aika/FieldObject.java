@@ -71,6 +71,13 @@ public abstract class FieldObject {
         return fieldLinks;
     }
 
+    /**
+     * @return the thought this object belongs to or null if the object is part of the model.
+     */
+    public Thought getThoughtScope() {
+        return null;
+    }
+
     public void disconnect() {
         disconnect(Direction.INPUT, false, true, true);
         disconnect(Direction.OUTPUT, false, true, true);
@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.elements.neurons.Neuron;
+import network.aika.elements.synapses.Synapse;
+import network.aika.fields.BatchedSumField;
+import network.aika.training.DeltaBuffer;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Side buffer for the parameter updates of a mini-batch. While the mini-batch size of the config is larger
+ * than one, the weight, bias and synapse bias updates of the training phase are not applied to the model
+ * immediately, but are accumulated per field across several documents. Once the batch is complete, all
+ * accumulated deltas are applied in one pass. Neuron-level follow-up computations, such as the sorting of the
+ * input synapses by their weights, are triggered only once per neuron and batch.
+ *
+ * Worker threads of a data-parallel training install their own delta buffer. Their updates are collected
+ * there and merged into this mini-batch by the coordinator. Merging and applying the pending updates is
+ * reserved to threads without a delta buffer, so that the model parameters are never modified while
+ * workers are running.
+ *
+ * The pending updates refer to the fields of the neurons and synapses they belong to. Before a neuron is
+ * suspended, its pending updates and those of the synapses stored with it are therefore applied early, see
+ * {@link #flush(Neuron)}. Otherwise they would be lost together with the dropped objects.
+ *
+ * @author Lukas Molzberger
+ */
+public class MiniBatch {
+
+    private final List<BatchedSumField> pendingFields = new ArrayList<>();
+
+    private final Map<Object, Runnable> pendingNeuronUpdates = new IdentityHashMap<>();
+
+    private int numberOfDocuments;
+
+    private boolean applying;
+
+    private final ThreadLocal<DeltaBuffer> deltaBuffer = new ThreadLocal<>();
+
+    public static boolean isEnabled(Config c) {
+        return c != null && c.getMiniBatchSize() > 1;
+    }
+
+    public boolean isDeferring(Config c) {
+        return isEnabled(c) || deltaBuffer.get() != null;
+    }
+
+    /**
+     * Installs the delta buffer of the current worker thread, null removes it.
+     */
+    public void setDeltaBuffer(DeltaBuffer b) {
+        if(b != null)
+            deltaBuffer.set(b);
+        else
+            deltaBuffer.remove();
+    }
+
+    public void defer(BatchedSumField f, double u) {
+        DeltaBuffer b = deltaBuffer.get();
+        if(b != null) {
+            b.add(f, u);
+            return;
+        }
+
+        addPendingUpdate(f, u);
+    }
+
+    public synchronized void merge(DeltaBuffer b) {
+        checkNotWorker();
+        b.drain(this::addPendingUpdate);
+    }
+
+    private void checkNotWorker() {
+        if(deltaBuffer.get() != null)
+            throw new IllegalStateException("The mini-batch can not be merged or applied by a worker thread.");
+    }
+
+    private synchronized void addPendingUpdate(BatchedSumField f, double u) {
+        if(f.addPendingUpdate(u))
+            pendingFields.add(f);
+    }
+
+    /**
+     * Postpones a neuron-level update that is triggered while the mini-batch is applied, so that it is
+     * executed only once per neuron.
+     */
+    public synchronized boolean deferNeuronUpdate(Object neuron, Runnable update) {
+        if(!applying)
+            return false;
+
+        pendingNeuronUpdates.putIfAbsent(neuron, update);
+        return true;
+    }
+
+    public synchronized void onDocumentProcessed(Config c) {
+        if(deltaBuffer.get() != null)
+            return;
+
+        numberOfDocuments++;
+
+        if(!isEnabled(c) || numberOfDocuments >= c.getMiniBatchSize())
+            apply();
+    }
+
+    /**
+     * Applies all pending updates to the model. Needs to be called explicitly to flush an incomplete
+     * batch at the end of the training.
+     */
+    public synchronized void apply() {
+        checkNotWorker();
+
+        numberOfDocuments = 0;
+        if(pendingFields.isEmpty())
+            return;
+
+        List<BatchedSumField> fields = new ArrayList<>(pendingFields);
+        pendingFields.clear();
+        apply(fields);
+    }
+
+    /**
+     * Applies the pending updates of the given neuron and of the synapses that are stored with it, so that
+     * they are not lost when the neuron is suspended.
+     */
+    public synchronized void flush(Neuron n) {
+        if(pendingFields.isEmpty())
+            return;
+
+        checkNotWorker();
+
+        List<BatchedSumField> fields = new ArrayList<>();
+        pendingFields.removeIf(f -> {
+            if(!isStoredWith(f, n))
+                return false;
+
+            fields.add(f);
+            return true;
+        });
+        apply(fields);
+    }
+
+    private static boolean isStoredWith(BatchedSumField f, Neuron n) {
+        FieldObject ref = f.getReference();
+        if(ref == n)
+            return true;
+
+        if(!(ref instanceof Synapse))
+            return false;
+
+        Synapse s = (Synapse) ref;
+        return s.getStoredAt().getNeuron(s) == n;
+    }
+
+    private void apply(List<BatchedSumField> fields) {
+        if(fields.isEmpty())
+            return;
+
+        applying = true;
+        try {
+            fields.forEach(BatchedSumField::applyPendingUpdate);
+        } finally {
+            applying = false;
+        }
+
+        List<Runnable> neuronUpdates = new ArrayList<>(pendingNeuronUpdates.values());
+        pendingNeuronUpdates.clear();
+        neuronUpdates.forEach(Runnable::run);
+    }
+
+    public synchronized int getNumberOfDocuments() {
+        return numberOfDocuments;
+    }
+
+    public synchronized int getNumberOfPendingFields() {
+        return pendingFields.size();
+    }
+}
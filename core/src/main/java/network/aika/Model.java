@@ -20,9 +20,14 @@ package network.aika;
 import network.aika.callbacks.InMemorySuspensionCallback;
 import network.aika.callbacks.NeuronProducer;
 import network.aika.callbacks.SuspensionCallback;
+import network.aika.elements.activations.ActivationArena;
 import network.aika.elements.neurons.Neuron;
 import network.aika.elements.neurons.NeuronProvider;
+import network.aika.elements.neurons.PatternNeuron;
+import network.aika.elements.neurons.PendingSynapsePageIndex;
+import network.aika.elements.neurons.Range;
 import network.aika.elements.neurons.SuspensionMode;
+import network.aika.elements.synapses.SynapseColumns;
 import network.aika.utils.Writable;
 
 import java.io.*;
@@ -49,8 +54,26 @@ public class Model implements Writable {
 
     private Thought currentThought;
 
+    /**
+     * Worker threads of a data-parallel training each have their own current thought.
+     */
+    private final ThreadLocal<Thought[]> workerThought = new ThreadLocal<>();
+
+    private final MiniBatch miniBatch = new MiniBatch();
+
+    /**
+     * The arena of the last disconnected thought of each thread, ready to be reused by the next thought.
+     */
+    private final ThreadLocal<ActivationArena> freeArena = new ThreadLocal<>();
+
+    private final ElementTypeRegistry typeRegistry = new ElementTypeRegistry();
+
     private Supplier<Writable> customDataInstanceSupplier;
 
+    private SynapseColumns synapseColumns;
+
+    private final PendingSynapsePageIndex pendingSynapsePageIndex = new PendingSynapsePageIndex(true);
+
     public Model() {
         this(new InMemorySuspensionCallback());
     }
@@ -87,19 +110,52 @@ public class Model implements Writable {
         return suspensionCallback.createId();
     }
 
+    public MiniBatch getMiniBatch() {
+        return miniBatch;
+    }
+
     public Thought getCurrentThought() {
-        return currentThought;
+        Thought[] wt = workerThought.get();
+        return wt != null ?
+                wt[0] :
+                currentThought;
     }
 
     public void setCurrentThought(Thought currentThought) {
-        this.currentThought = currentThought;
+        Thought[] wt = workerThought.get();
+        if(wt != null)
+            wt[0] = currentThought;
+        else
+            this.currentThought = currentThought;
+    }
+
+    public void registerWorkerThread() {
+        workerThought.set(new Thought[1]);
+    }
+
+    public void unregisterWorkerThread() {
+        workerThought.remove();
+    }
+
+    public ActivationArena acquireArena() {
+        ActivationArena arena = freeArena.get();
+        if(arena == null)
+            return new ActivationArena();
+
+        freeArena.remove();
+        return arena;
+    }
+
+    public void releaseArena(ActivationArena arena) {
+        arena.reset();
+        freeArena.set(arena);
     }
 
     public Collection<NeuronProvider> getActiveNeurons() {
         return new ArrayList<>(providers.values());
     }
 
-    public <N extends Neuron> N lookupNeuronByLabel(String tokenLabel, NeuronProducer<N> onNewCallback) {
+    public synchronized <N extends Neuron> N lookupNeuronByLabel(String tokenLabel, NeuronProducer<N> onNewCallback) {
         Long id = suspensionCallback.getIdByLabel(tokenLabel);
         if(id != null)
             return (N) lookupNeuronProvider(id).getNeuron();
@@ -129,10 +185,59 @@ public class Model implements Writable {
                 .map(this::lookupNeuronProvider);
     }
 
-    public void applyMovingAverage(Config trainingConfig) {
-        if(trainingConfig.getAlpha() != null) {
-            N *= trainingConfig.getAlpha();
+    /**
+     * Sequential read-only scan over all stored neurons in storage order. The neurons are decoded from the
+     * store without registering providers in this model, modifications that have not been saved yet are
+     * not visible. The returned neurons are detached views, which are released as soon as the caller no
+     * longer refers to them.
+     */
+    public Stream<Neuron> scanNeurons() {
+        return scanNeurons(1).get(0);
+    }
+
+    /**
+     * Splits the scan into consecutive segments of the store, each of which can be consumed by a separate
+     * thread.
+     */
+    public List<Stream<Neuron>> scanNeurons(int numSegments) {
+        List<Long> ids = suspensionCallback.getIdsInStorageOrder();
+        int segmentSize = Math.max(1, (ids.size() + numSegments - 1) / numSegments);
+
+        List<Stream<Neuron>> segments = new ArrayList<>(numSegments);
+        for(int i = 0; i < numSegments; i++) {
+            int begin = Math.min(ids.size(), i * segmentSize);
+            int end = Math.min(ids.size(), begin + segmentSize);
+            segments.add(
+                    new ScanModel(this)
+                            .scan(ids.subList(begin, end))
+            );
+        }
+        return segments;
+    }
+
+    /**
+     * Counting-only fast path. Updates the frequency statistics of the given token neurons as if a document
+     * of the given length had been processed in which each token neuron fired at the corresponding
+     * character range. The ranges are relative to the begin of the text and need to be in text order.
+     * No activations, links or fields are created.
+     */
+    public void countTokens(List<? extends PatternNeuron> tokenNeurons, List<Range> ranges, int length, Config c) {
+        assert tokenNeurons.size() == ranges.size();
+
+        long begin = getN();
+        for(int i = 0; i < tokenNeurons.size(); i++) {
+            PatternNeuron n = tokenNeurons.get(i);
+            if(n.isAbstract())
+                continue;
+
+            Range r = ranges.get(i);
+            n.count(
+                    new Range(begin + r.getBegin(), begin + r.getEnd()),
+                    c.getAlpha()
+            );
         }
+
+        addToN(length);
     }
 
     public SuspensionCallback getSuspensionCallback() {
@@ -143,15 +248,15 @@ public class Model implements Writable {
         this.suspensionCallback = suspensionCallback;
     }
 
-    public void addToN(int l) {
+    public synchronized void addToN(int l) {
         N += l;
     }
 
-    public long getN() {
+    public synchronized long getN() {
         return N;
     }
 
-    public void setN(long n) {
+    public synchronized void setN(long n) {
         N = n;
     }
 
@@ -165,6 +270,19 @@ public class Model implements Writable {
         }
     }
 
+    /**
+     * Returns the provider of the given neuron if it is currently registered, without creating it.
+     */
+    public NeuronProvider getRegisteredNeuronProvider(Long id) {
+        synchronized (providers) {
+            return providers.get(id);
+        }
+    }
+
+    public PendingSynapsePageIndex getPendingSynapsePageIndex() {
+        return pendingSynapsePageIndex;
+    }
+
     public void suspendUnusedNeurons(long retrievalCount, SuspensionMode sm) {
         synchronized (providers) {
             providers
@@ -214,13 +332,24 @@ public class Model implements Writable {
         suspensionCallback.close();
     }
 
+    public SynapseColumns getSynapseColumns() {
+        return synapseColumns;
+    }
+
+    /**
+     * Keeps the statistics of pattern synapses in the given off-heap columns instead of on the Java heap. The
+     * records are addressed by the ids of the input and output neuron of a synapse and outlive its suspension.
+     */
+    public void setSynapseColumns(SynapseColumns synapseColumns) {
+        this.synapseColumns = synapseColumns;
+    }
+
+    public ElementTypeRegistry getTypeRegistry() {
+        return typeRegistry;
+    }
+
     public Object modelClass(String clazzName) {
-        try {
-            Class clazz = getClass().getClassLoader().loadClass(clazzName);
-            return clazz.getConstructor().newInstance();
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
+        return typeRegistry.newInstance(clazzName);
     }
 
     @Override
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.elements.neurons.Neuron;
+import network.aika.elements.neurons.NeuronProvider;
+import network.aika.elements.neurons.PendingSynapsePageIndex;
+import network.aika.utils.Writable;
+
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * A scratch model used to decode the stored neurons of a source model without registering them there.
+ * Neurons are reactivated into this model instead. Its providers are only weakly referenced, so that a
+ * decoded neuron is dropped as soon as the consumer of the scan no longer refers to it. The type
+ * registry, the custom data supplier and the sample count are shared with the source model.
+ *
+ * @author Lukas Molzberger
+ */
+class ScanModel extends Model {
+
+    private final Model source;
+
+    private final Map<Long, WeakReference<NeuronProvider>> scanProviders = new HashMap<>();
+
+    /**
+     * The decoded neurons are dropped without being suspended, their pending pages are not indexed.
+     */
+    private final PendingSynapsePageIndex pendingSynapsePageIndex = new PendingSynapsePageIndex(false);
+    private int pruneThreshold = 1024;
+
+    ScanModel(Model source) {
+        super(source.getSuspensionCallback());
+        this.source = source;
+    }
+
+    Stream<Neuron> scan(List<Long> ids) {
+        return ids.stream()
+                .map(id ->
+                        lookupNeuronProvider(id).getNeuron()
+                );
+    }
+
+    @Override
+    public synchronized NeuronProvider lookupNeuronProvider(Long id) {
+        WeakReference<NeuronProvider> ref = scanProviders.get(id);
+        NeuronProvider p = ref != null ? ref.get() : null;
+        if(p != null)
+            return p;
+
+        return new NeuronProvider(this, id);
+    }
+
+    @Override
+    public synchronized void register(NeuronProvider p) {
+        scanProviders.put(p.getId(), new WeakReference<>(p));
+
+        if(scanProviders.size() > pruneThreshold) {
+            scanProviders.values().removeIf(ref -> ref.get() == null);
+            pruneThreshold = Math.max(1024, 2 * scanProviders.size());
+        }
+    }
+
+    @Override
+    public void unregister(NeuronProvider p) {
+        // Providers are released once they are no longer referenced.
+    }
+
+    @Override
+    public PendingSynapsePageIndex getPendingSynapsePageIndex() {
+        return pendingSynapsePageIndex;
+    }
+
+    @Override
+    public ElementTypeRegistry getTypeRegistry() {
+        return source.getTypeRegistry();
+    }
+
+    @Override
+    public Supplier<Writable> getCustomDataInstanceSupplier() {
+        return source.getCustomDataInstanceSupplier();
+    }
+
+    @Override
+    public long getN() {
+        return source.getN();
+    }
+}
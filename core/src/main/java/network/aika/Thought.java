@@ -22,22 +22,30 @@ import network.aika.callbacks.EventListener;
 import network.aika.callbacks.EventType;
 import network.aika.callbacks.InstantiationCallback;
 import network.aika.elements.activations.Activation;
+import network.aika.elements.activations.ActivationArena;
 import network.aika.elements.Element;
 import network.aika.elements.activations.Timestamp;
+import network.aika.elements.links.Link;
 import network.aika.elements.links.NegativeFeedbackLink;
 import network.aika.fields.*;
 import network.aika.elements.neurons.PreActivation;
 import network.aika.elements.neurons.NeuronProvider;
 import network.aika.elements.neurons.Range;
+import network.aika.steps.ParallelPhase;
 import network.aika.steps.Phase;
 import network.aika.steps.QueueKey;
 import network.aika.steps.Step;
 import network.aika.steps.activation.InactiveLinks;
 import network.aika.steps.activation.InstantiationNodes;
 import network.aika.steps.thought.AnnealStep;
+import network.aika.steps.thought.BackwardPassStep;
+import network.aika.steps.thought.AnnealingController;
 import network.aika.steps.thought.CloseStep;
+import network.aika.training.TrainingBackend;
+import network.aika.visitor.linking.LatentActivationIndex;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -53,6 +61,7 @@ import static network.aika.steps.Phase.*;
 public abstract class Thought extends FieldObject implements Element {
 
     private Field annealing;
+    private AnnealingController annealingController;
 
     private int currentIsOpen = 0;
     private Field[] isOpen;
@@ -72,10 +81,20 @@ public abstract class Thought extends FieldObject implements Element {
 
     private final NavigableMap<QueueKey, Step> queue = new TreeMap<>(QueueKey.COMPARATOR);
 
-    private final TreeMap<Integer, Activation> activationsById = new TreeMap<>();
+    private ActivationArena arena;
     private final Map<NeuronProvider, PreActivation<? extends Activation>> actsPerNeuron = new HashMap<>();
     private final List<network.aika.callbacks.EventListener> eventListeners = new ArrayList<>();
 
+    private final LatentActivationIndex latentActivationIndex = new LatentActivationIndex();
+
+    /**
+     * Field links between the long-lived fields of the model and the elements of this thought, grouped by
+     * the model field they belong to.
+     */
+    private final Map<ScopedFieldLinks, List> scopedFieldLinks = new IdentityHashMap<>();
+
+    private boolean disconnected;
+
     private Config config;
 
     private ActivationCheckCallback activationCheckCallback;
@@ -86,6 +105,7 @@ public abstract class Thought extends FieldObject implements Element {
         model = m;
         id = model.createThoughtId();
         absoluteBegin = m.getN();
+        arena = m.acquireArena();
 
         isOpen = new Field[2];
         isOpen[0] = new ConstantField(this, "isOpen (infer)", 1.0);
@@ -133,6 +153,18 @@ public abstract class Thought extends FieldObject implements Element {
         return annealing;
     }
 
+    public AnnealingController getAnnealingController() {
+        return annealingController;
+    }
+
+    public Stream<NegativeFeedbackLink> getNegativeFeedbackLinks() {
+        return annealing.getReceivers()
+                .stream()
+                .filter(fl -> fl.getOutput() instanceof Field)
+                .map(fl -> (Field) fl.getOutput())
+                .map(f -> (NegativeFeedbackLink) f.getReference());
+    }
+
     public abstract int length();
 
     public Config getConfig() {
@@ -188,20 +220,36 @@ public abstract class Thought extends FieldObject implements Element {
     }
 
     public void register(Activation act) {
-        activationsById.put(act.getId(), act);
+        arena.add(act);
+    }
+
+    public int register(Link l) {
+        return arena.add(l);
+    }
+
+    public void unregister(Link l) {
+        arena.remove(l, l.getArenaIndex());
+    }
+
+    public ActivationArena getArena() {
+        return arena;
+    }
+
+    public LatentActivationIndex getLatentActivationIndex() {
+        return latentActivationIndex;
     }
 
     public void register(NeuronProvider np, PreActivation<? extends Activation> acts) {
         actsPerNeuron.put(np, acts);
     }
 
-    public void addStep(Step s) {
+    public synchronized void addStep(Step s) {
         s.createQueueKey(getNextTimestamp());
         queue.put(s.getQueueKey(), s);
         queueEvent(ADDED, s);
     }
 
-    public void removeStep(Step s) {
+    public synchronized void removeStep(Step s) {
         Step removedStep = queue.remove(s.getQueueKey());
         assert removedStep != null;
         s.removeQueueKey();
@@ -220,6 +268,11 @@ public abstract class Thought extends FieldObject implements Element {
             if(checkMaxPhaseReached(maxPhase))
                 break;
 
+            if(isParallelCountingPhase()) {
+                processParallel(COUNTING);
+                continue;
+            }
+
             Step s = queue.pollFirstEntry().getValue();
             s.removeQueueKey();
 
@@ -231,6 +284,35 @@ public abstract class Thought extends FieldObject implements Element {
         }
     }
 
+    private boolean isParallelCountingPhase() {
+        return config != null &&
+                config.isParallelCountingEnabled() &&
+                queue.firstKey().getPhase() == COUNTING;
+    }
+
+    /**
+     * Removes all queued steps of the given phase and processes them in parallel. Steps added
+     * while the phase is processed are queued as usual.
+     */
+    private void processParallel(Phase phase) {
+        ParallelPhase pp = new ParallelPhase();
+        List<Step> steps = new ArrayList<>();
+        synchronized (this) {
+            while (!queue.isEmpty() && queue.firstKey().getPhase() == phase) {
+                Step s = queue.pollFirstEntry().getValue();
+                s.removeQueueKey();
+                steps.add(s);
+                pp.add(s);
+            }
+        }
+
+        timestampOnProcess = getCurrentTimestamp();
+
+        steps.forEach(s -> queueEvent(BEFORE, s));
+        pp.process(ForkJoinPool.commonPool());
+        steps.forEach(s -> queueEvent(AFTER, s));
+    }
+
     private boolean checkMaxPhaseReached(Phase maxPhase) {
         return maxPhase == null ?
                 false :
@@ -241,6 +323,11 @@ public abstract class Thought extends FieldObject implements Element {
      * The postprocessing steps such as counting, cleanup or save are executed.
      */
     public void postProcessing() {
+        if(config != null && config.isTrainingEnabled() && config.getTrainingBackend() == TrainingBackend.BACKWARD_PASS)
+            BackwardPassStep.add(this);
+
+        process(TRAINING);
+        model.getMiniBatch().onDocumentProcessed(getConfig());
         process(null);
     }
 
@@ -269,25 +356,57 @@ public abstract class Thought extends FieldObject implements Element {
     }
 
     public Activation getActivation(Integer id) {
-        return activationsById.get(id);
+        return arena.get(id);
     }
 
     public Collection<Activation> getActivations() {
-        return activationsById.values();
+        return arena.getActivations();
     }
 
     public int getNumberOfActivations() {
-        return activationsById.size();
+        return arena.getActivations().size();
+    }
+
+    @Override
+    public Thought getThoughtScope() {
+        return this;
+    }
+
+    public <L extends AbstractFieldLink> List<L> getScopedFieldLinks(ScopedFieldLinks<L> fieldLinks) {
+        return scopedFieldLinks.get(fieldLinks);
+    }
+
+    public <L extends AbstractFieldLink> void putScopedFieldLinks(ScopedFieldLinks<L> fieldLinks, List<L> links) {
+        scopedFieldLinks.put(fieldLinks, links);
     }
 
+    public boolean isDisconnected() {
+        return disconnected;
+    }
+
+    /**
+     * The field links into the model are held by this thought, so disconnecting it does not need to visit
+     * its activations. The model fields drop their references to this thought the next time they are accessed.
+     * The activations remain readable until the thought is released.
+     */
     public void disconnect() {
         if(model.getCurrentThought() == this)
             model.setCurrentThought(null);
 
-        getActivations()
-                .forEach(act ->
-                        act.disconnect()
-                );
+        disconnected = true;
+    }
+
+    /**
+     * Disconnects this thought and hands its arena on to the next thought of the current thread. Afterwards
+     * the activations of this thought are no longer available, so it should only be called once its results
+     * have been read.
+     */
+    public void release() {
+        if(!disconnected)
+            disconnect();
+
+        model.releaseArena(arena);
+        arena = new ActivationArena();
     }
 
     public void close() {
@@ -295,12 +414,16 @@ public abstract class Thought extends FieldObject implements Element {
     }
 
     public void anneal() {
+        annealingController = new AnnealingController();
         AnnealStep.add(this);
         process(ANNEAL); // Anneal needs to be finished before instantiation can start.
     }
 
     public void train() {
-        activationsById.values()
+        if(getConfig().isInferenceOnly())
+            return;
+
+        arena.getActivations()
                 .forEach(InactiveLinks::add);
 
         process(TRAINING);
@@ -312,7 +435,7 @@ public abstract class Thought extends FieldObject implements Element {
 
         currentIsOpen++;
 
-        activationsById.values().stream()
+        arena.getActivations().stream()
                 .filter(act -> act.getNeuron().isAbstract())
                 .filter(act -> act.isFired())
                 .forEach(InstantiationNodes::add);
@@ -321,7 +444,7 @@ public abstract class Thought extends FieldObject implements Element {
     public String toString() {
         StringBuilder sb = new StringBuilder();
 
-        for(Activation act: activationsById.values()) {
+        for(Activation act: arena.getActivations()) {
             sb.append(act.toString());
             sb.append("\n");
         }
@@ -25,6 +25,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 /**
  *
@@ -40,6 +41,11 @@ public class FSSuspensionCallback implements SuspensionCallback {
     private Map<String, Long> labels = Collections.synchronizedMap(new HashMap<>());
     private Map<Long, long[]> index = Collections.synchronizedMap(new TreeMap<>());
 
+    /**
+     * Positions of the delta records appended to the model store since the last full record of a neuron.
+     */
+    private Map<Long, List<long[]>> deltaIndex = Collections.synchronizedMap(new TreeMap<>());
+
     private Path path;
     private String modelLabel;
 
@@ -106,19 +112,54 @@ public class FSSuspensionCallback implements SuspensionCallback {
         modelStore.seek(modelStore.length());
 
         index.put(id, new long[]{modelStore.getFilePointer(), data.length});
+        deltaIndex.remove(id);
         modelStore.write(data);
     }
 
+    @Override
+    public boolean isDeltaStorageSupported() {
+        return !readOnly;
+    }
+
+    @Override
+    public synchronized void storeDelta(Long id, String label, Writable customData, byte[] delta) throws IOException {
+        if(readOnly)
+            return;
+
+        modelStore.seek(modelStore.length());
+
+        deltaIndex.computeIfAbsent(id, k -> new ArrayList<>())
+                .add(new long[]{modelStore.getFilePointer(), delta.length});
+        modelStore.write(delta);
+    }
+
     @Override
     public synchronized byte[] retrieve(Long id) throws IOException {
         long[] pos = index.get(id);
         if(pos == null)
             throw new MissingNeuronException("Neuron with id " + id + " is missing in model label " + modelLabel);
 
+        return read(pos);
+    }
+
+    @Override
+    public synchronized List<byte[]> retrieveDeltas(Long id) throws IOException {
+        List<long[]> positions = deltaIndex.get(id);
+        if(positions == null)
+            return Collections.emptyList();
+
+        List<byte[]> deltas = new ArrayList<>(positions.size());
+        for(long[] pos: positions)
+            deltas.add(read(pos));
+
+        return deltas;
+    }
+
+    private byte[] read(long[] pos) throws IOException {
         byte[] data = new byte[(int)pos[1]];
 
         modelStore.seek(pos[0]);
-        modelStore.read(data);
+        modelStore.readFully(data);
 
         return data;
     }
@@ -126,6 +167,7 @@ public class FSSuspensionCallback implements SuspensionCallback {
     @Override
     public synchronized void remove(Long id) {
         index.remove(id);
+        deltaIndex.remove(id);
     }
 
     @Override
@@ -133,6 +175,16 @@ public class FSSuspensionCallback implements SuspensionCallback {
         return index.keySet();
     }
 
+    @Override
+    public List<Long> getIdsInStorageOrder() {
+        synchronized (index) {
+            return index.entrySet().stream()
+                    .sorted(Comparator.comparingLong(e -> e.getValue()[0]))
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+        }
+    }
+
     @Override
     public void loadIndex(Model m) {
         try (FileInputStream fis = new FileInputStream(getFile(INDEX));
@@ -185,6 +237,17 @@ public class FSSuspensionCallback implements SuspensionCallback {
 
             index.put(id, pos);
         }
+
+        deltaIndex.clear();
+        while(in.readBoolean()) {
+            Long id = in.readLong();
+            int numDeltas = in.readInt();
+            List<long[]> positions = new ArrayList<>(numDeltas);
+            for(int i = 0; i < numDeltas; i++)
+                positions.add(new long[]{in.readLong(), in.readInt()});
+
+            deltaIndex.put(id, positions);
+        }
     }
 
     private void writeIndex(DataOutput out) throws IOException {
@@ -204,5 +267,16 @@ public class FSSuspensionCallback implements SuspensionCallback {
             out.writeInt((int)me.getValue()[1]);
         }
         out.writeBoolean(false);
+
+        for(Map.Entry<Long, List<long[]>> me: deltaIndex.entrySet()) {
+            out.writeBoolean(true);
+            out.writeLong(me.getKey());
+            out.writeInt(me.getValue().size());
+            for(long[] pos: me.getValue()) {
+                out.writeLong(pos[0]);
+                out.writeInt((int)pos[1]);
+            }
+        }
+        out.writeBoolean(false);
     }
 }
@@ -20,10 +20,7 @@ import network.aika.Model;
 import network.aika.utils.Writable;
 
 import java.io.IOException;
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.TreeMap;
+import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -35,6 +32,7 @@ public class InMemorySuspensionCallback implements SuspensionCallback {
     private AtomicInteger currentId = new AtomicInteger(0);
 
     private Map<Long, byte[]> storage = new TreeMap<>();
+    private Map<Long, List<byte[]>> deltas = new HashMap<>();
     private final Map<String, Long> labels = new HashMap<>();
 
     @Override
@@ -60,11 +58,29 @@ public class InMemorySuspensionCallback implements SuspensionCallback {
     @Override
     public void store(Long id, String label, Writable customData, byte[] data) {
         storage.put(id, data);
+        deltas.remove(id);
+    }
+
+    @Override
+    public boolean isDeltaStorageSupported() {
+        return true;
+    }
+
+    @Override
+    public void storeDelta(Long id, String label, Writable customData, byte[] delta) {
+        deltas.computeIfAbsent(id, k -> new ArrayList<>())
+                .add(delta);
+    }
+
+    @Override
+    public List<byte[]> retrieveDeltas(Long id) {
+        return deltas.getOrDefault(id, Collections.emptyList());
     }
 
     @Override
     public void remove(Long id) {
         storage.remove(id);
+        deltas.remove(id);
     }
 
     @Override
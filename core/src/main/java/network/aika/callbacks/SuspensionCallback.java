@@ -20,7 +20,10 @@ import network.aika.Model;
 import network.aika.utils.Writable;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
 /**
  *
@@ -41,14 +44,46 @@ public interface SuspensionCallback {
 
     long createId();
 
+    /**
+     * Stores the full record of a neuron and drops its delta records.
+     */
     void store(Long id, String label, Writable customData, byte[] data) throws IOException;
 
     void remove(Long id) throws IOException;
 
     byte[] retrieve(Long id) throws IOException;
 
+    /**
+     * Whether delta records can be appended to the full record of a neuron. Otherwise, every save writes a
+     * full record.
+     */
+    default boolean isDeltaStorageSupported() {
+        return false;
+    }
+
+    /**
+     * Appends a delta record to the stored record of a neuron.
+     */
+    default void storeDelta(Long id, String label, Writable customData, byte[] delta) throws IOException {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @return the delta records appended since the last full record, in the order they were stored
+     */
+    default List<byte[]> retrieveDeltas(Long id) throws IOException {
+        return Collections.emptyList();
+    }
+
     Collection<Long> getAllIds();
 
+    /**
+     * @return the ids of all stored neurons in the order their records are laid out in the store
+     */
+    default List<Long> getIdsInStorageOrder() {
+        return new ArrayList<>(getAllIds());
+    }
+
 
     Long getIdByLabel(String label);
 
@@ -0,0 +1,311 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.compiled;
+
+import network.aika.ElementTypeRegistry;
+import network.aika.Model;
+import network.aika.elements.neurons.ActivationFunction;
+import network.aika.elements.neurons.Neuron;
+import network.aika.elements.neurons.NeuronProvider;
+import network.aika.elements.synapses.ConjunctiveSynapse;
+import network.aika.elements.synapses.PositiveFeedbackSynapse;
+import network.aika.elements.synapses.Synapse;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Immutable snapshot of a model for read-only inference. Neurons and synapses are mapped to dense int ids
+ * and all parameters are held in primitive arrays, together with the input and output adjacency of each
+ * neuron in compressed sparse row form. A compiled model is never modified after its construction and can
+ * therefore be shared across threads without locking. Changes made to the model after the compilation
+ * are not reflected.
+ *
+ * @author Lukas Molzberger
+ */
+public class CompiledModel {
+
+    public static final byte FEED_FORWARD = 0;
+    public static final byte POSITIVE_FEEDBACK = 1;
+    public static final byte NEGATIVE_FEEDBACK = 2;
+
+    private final long[] neuronIds;
+    private final String[] labels;
+    private final short[] neuronTypes;
+    private final ActivationFunction[] activationFunctions;
+    private final double[] completeBias;
+
+    private final int[] synapseInput;
+    private final int[] synapseOutput;
+    private final short[] synapseTypes;
+    private final byte[] synapseKind;
+    private final byte[] scopes;
+    private final boolean[] optional;
+    private final double[] weight;
+    private final double[] synapseBias;
+    private final double[] sumOfLowerWeights;
+
+    private final int[] inputOffsets;
+    private final int[] inputSynapses;
+    private final int[] outputOffsets;
+    private final int[] outputSynapses;
+
+    private CompiledModel(ElementTypeRegistry registry, List<Neuron> neurons) {
+        neurons.sort(Comparator.comparingLong(Neuron::getId));
+
+        int numNeurons = neurons.size();
+        neuronIds = new long[numNeurons];
+        labels = new String[numNeurons];
+        neuronTypes = new short[numNeurons];
+        activationFunctions = new ActivationFunction[numNeurons];
+        completeBias = new double[numNeurons];
+
+        for(int i = 0; i < numNeurons; i++) {
+            Neuron n = neurons.get(i);
+            neuronIds[i] = n.getId();
+            labels[i] = n.getLabel();
+            neuronTypes[i] = registry.getTypeId(n.getClass());
+            activationFunctions[i] = n.getActivationFunction();
+            completeBias[i] = n.getCurrentCompleteBias();
+        }
+
+        // A synapse of a decoded neuron is only visible at the neuron it is stored at.
+        List<Synapse> synapses = new ArrayList<>();
+        for(Neuron n: neurons) {
+            Stream.concat(
+                    (Stream<Synapse>) n.getInputSynapsesAsStream(),
+                    (Stream<Synapse>) n.getOutputSynapsesAsStream()
+            )
+                    .filter(s ->
+                            getNeuronIndex(s.getPInput().getId()) >= 0 &&
+                                    getNeuronIndex(s.getPOutput().getId()) >= 0
+                    )
+                    .forEach(synapses::add);
+        }
+        synapses.sort(
+                Comparator.<Synapse>comparingLong(s -> s.getPOutput().getId())
+                        .thenComparingLong(s -> s.getPInput().getId())
+        );
+        removeDuplicates(synapses);
+
+        int numSynapses = synapses.size();
+        synapseInput = new int[numSynapses];
+        synapseOutput = new int[numSynapses];
+        synapseTypes = new short[numSynapses];
+        synapseKind = new byte[numSynapses];
+        scopes = new byte[numSynapses];
+        optional = new boolean[numSynapses];
+        weight = new double[numSynapses];
+        synapseBias = new double[numSynapses];
+        sumOfLowerWeights = new double[numSynapses];
+
+        for(int i = 0; i < numSynapses; i++) {
+            Synapse s = synapses.get(i);
+            synapseInput[i] = getNeuronIndex(s.getPInput().getId());
+            synapseOutput[i] = getNeuronIndex(s.getPOutput().getId());
+            synapseTypes[i] = registry.getTypeId(s.getClass());
+            synapseKind[i] = getKind(s);
+            scopes[i] = (byte) s.getScope().ordinal();
+            weight[i] = s.getWeight().getUpdatedCurrentValue();
+            sumOfLowerWeights[i] = s.getSumOfLowerWeights();
+
+            if(s instanceof ConjunctiveSynapse) {
+                ConjunctiveSynapse cs = (ConjunctiveSynapse) s;
+                optional[i] = cs.isOptional();
+                synapseBias[i] = cs.getSynapseBias().getUpdatedCurrentValue();
+            }
+        }
+
+        inputOffsets = new int[numNeurons + 1];
+        inputSynapses = buildAdjacency(synapseOutput, inputOffsets);
+        outputOffsets = new int[numNeurons + 1];
+        outputSynapses = buildAdjacency(synapseInput, outputOffsets);
+    }
+
+    private static void removeDuplicates(List<Synapse> sortedSynapses) {
+        int size = 0;
+        for(Synapse s: sortedSynapses) {
+            if(size > 0) {
+                Synapse last = sortedSynapses.get(size - 1);
+                if(last.getPInput().getId().equals(s.getPInput().getId()) &&
+                        last.getPOutput().getId().equals(s.getPOutput().getId()))
+                    continue;
+            }
+            sortedSynapses.set(size++, s);
+        }
+        sortedSynapses.subList(size, sortedSynapses.size()).clear();
+    }
+
+    /**
+     * Compiles all neurons of the model. The loaded neurons are taken as they are, the suspended ones are
+     * decoded by a scan of the store, so that they are neither reactivated nor registered in the model.
+     */
+    public static CompiledModel compile(Model m) {
+        Map<Long, Neuron> neurons = new HashMap<>();
+        m.getActiveNeurons().stream()
+                .map(NeuronProvider::getIfNotSuspended)
+                .filter(Objects::nonNull)
+                .forEach(n -> neurons.put(n.getId(), n));
+
+        m.scanNeurons()
+                .forEach(n -> neurons.putIfAbsent(n.getId(), n));
+
+        return new CompiledModel(m.getTypeRegistry(), new ArrayList<>(neurons.values()));
+    }
+
+    /**
+     * Compiles the subset of the model that is reachable from the given input neurons along output synapses.
+     */
+    public static CompiledModel compile(Model m, Collection<? extends Neuron> inputNeurons) {
+        Map<Long, Neuron> reachable = new HashMap<>();
+        Deque<Neuron> queue = new ArrayDeque<>(inputNeurons);
+        while(!queue.isEmpty()) {
+            Neuron n = queue.poll();
+            if(reachable.putIfAbsent(n.getId(), n) != null)
+                continue;
+
+            n.getOutputSynapsesAsStream()
+                    .map(s -> ((Synapse) s).getOutput())
+                    .forEach(on -> queue.add((Neuron) on));
+        }
+
+        return new CompiledModel(m.getTypeRegistry(), new ArrayList<>(reachable.values()));
+    }
+
+    private static byte getKind(Synapse s) {
+        if(!s.isFeedbackSynapse())
+            return FEED_FORWARD;
+
+        return s instanceof PositiveFeedbackSynapse ?
+                POSITIVE_FEEDBACK :
+                NEGATIVE_FEEDBACK;
+    }
+
+    private int[] buildAdjacency(int[] keys, int[] offsets) {
+        for(int k: keys)
+            offsets[k + 1]++;
+
+        for(int i = 0; i < offsets.length - 1; i++)
+            offsets[i + 1] += offsets[i];
+
+        int[] pos = Arrays.copyOf(offsets, offsets.length - 1);
+        int[] adjacency = new int[keys.length];
+        for(int s = 0; s < keys.length; s++)
+            adjacency[pos[keys[s]]++] = s;
+
+        return adjacency;
+    }
+
+    /**
+     * @return the dense id of the neuron or a negative value if it is not part of this compiled model
+     */
+    public int getNeuronIndex(long neuronId) {
+        return Arrays.binarySearch(neuronIds, neuronId);
+    }
+
+    public int getNumberOfNeurons() {
+        return neuronIds.length;
+    }
+
+    public int getNumberOfSynapses() {
+        return synapseInput.length;
+    }
+
+    public long getNeuronId(int n) {
+        return neuronIds[n];
+    }
+
+    public String getLabel(int n) {
+        return labels[n];
+    }
+
+    public short getNeuronType(int n) {
+        return neuronTypes[n];
+    }
+
+    public ActivationFunction getActivationFunction(int n) {
+        return activationFunctions[n];
+    }
+
+    public double getCompleteBias(int n) {
+        return completeBias[n];
+    }
+
+    /**
+     * @return the dense id of the synapse between the given neurons or -1 if there is none
+     */
+    public int getSynapseIndex(int inputNeuron, int outputNeuron) {
+        for(int j = inputOffsets[outputNeuron]; j < inputOffsets[outputNeuron + 1]; j++) {
+            int s = inputSynapses[j];
+            if(synapseInput[s] == inputNeuron)
+                return s;
+        }
+        return -1;
+    }
+
+    public int getSynapseInput(int s) {
+        return synapseInput[s];
+    }
+
+    public int getSynapseOutput(int s) {
+        return synapseOutput[s];
+    }
+
+    public short getSynapseType(int s) {
+        return synapseTypes[s];
+    }
+
+    public byte getSynapseKind(int s) {
+        return synapseKind[s];
+    }
+
+    public byte getScope(int s) {
+        return scopes[s];
+    }
+
+    public boolean isOptional(int s) {
+        return optional[s];
+    }
+
+    public double getWeight(int s) {
+        return weight[s];
+    }
+
+    public double getSynapseBias(int s) {
+        return synapseBias[s];
+    }
+
+    public double getSumOfLowerWeights(int s) {
+        return sumOfLowerWeights[s];
+    }
+
+    public int getNumberOfInputSynapses(int n) {
+        return inputOffsets[n + 1] - inputOffsets[n];
+    }
+
+    public int getInputSynapse(int n, int i) {
+        return inputSynapses[inputOffsets[n] + i];
+    }
+
+    public int getNumberOfOutputSynapses(int n) {
+        return outputOffsets[n + 1] - outputOffsets[n];
+    }
+
+    public int getOutputSynapse(int n, int i) {
+        return outputSynapses[outputOffsets[n] + i];
+    }
+}
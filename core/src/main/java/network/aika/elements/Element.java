@@ -19,6 +19,7 @@ package network.aika.elements;
 import network.aika.Config;
 import network.aika.Thought;
 import network.aika.elements.activations.Timestamp;
+import network.aika.utils.BetaQuantile;
 
 /**
  * An Element is either a node (Activation) or an edge (Link) in the Activation graph.
@@ -36,4 +37,12 @@ public interface Element {
     default Config getConfig() {
         return getThought().getConfig();
     }
+
+    default BetaQuantile getBetaQuantile() {
+        Thought t = getThought();
+        if(t == null || t.getConfig() == null)
+            return BetaQuantile.CACHED;
+
+        return t.getConfig().getBetaQuantile();
+    }
 }
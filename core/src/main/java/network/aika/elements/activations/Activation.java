@@ -38,12 +38,12 @@ import network.aika.visitor.selfref.SelfRefDownVisitor;
 import network.aika.visitor.UpVisitor;
 import network.aika.steps.activation.Counting;
 import network.aika.steps.activation.LinkingOut;
+import network.aika.training.BackwardPass;
 
 import java.util.*;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
 
-import static java.lang.Integer.MAX_VALUE;
 import static network.aika.callbacks.EventType.CREATE;
 import static network.aika.callbacks.EventType.UPDATE;
 import static network.aika.elements.neurons.Range.joinTokenPosition;
@@ -83,8 +83,15 @@ public abstract class Activation<N extends Neuron> extends FieldObject implement
 
     protected FieldOutput negUpdateValue;
 
-    protected Map<NeuronProvider, Link> inputLinks;
-    protected NavigableMap<OutputKey, Link> outputLinks;
+    /**
+     * Input links keyed by the id of the input neuron.
+     */
+    protected LinkIndex inputLinks;
+
+    /**
+     * Output links keyed by the id of the output neuron and the id of the output activation.
+     */
+    protected LinkIndex outputLinks;
 
     public boolean instantiationNodesIsQueued;
     public boolean instantiationEdgesIsQueued;
@@ -101,8 +108,8 @@ public abstract class Activation<N extends Neuron> extends FieldObject implement
         this.thought = t;
         setCreated(t.getCurrentTimestamp());
 
-        inputLinks = new TreeMap<>();
-        outputLinks = new TreeMap<>(OutputKey.COMPARATOR);
+        inputLinks = new LinkIndex();
+        outputLinks = new LinkIndex();
 
         initNet();
 
@@ -123,17 +130,19 @@ public abstract class Activation<N extends Neuron> extends FieldObject implement
                 x -> getActivationFunction().f(x)
         );
 
-        negValue = threshold(
-                this,
-                "!value",
-                0.0,
-                BELOW_OR_EQUAL,
-                value
-        );
+        if(!getConfig().isInferenceOnly()) {
+            negValue = threshold(
+                    this,
+                    "!value",
+                    0.0,
+                    BELOW_OR_EQUAL,
+                    value
+            );
 
-        gradient = new QueueSumField(this, TRAINING, "gradient", TOLERANCE);
+            gradient = new QueueSumField(this, TRAINING, "gradient", TOLERANCE);
+        }
 
-        if (getConfig().isTrainingEnabled() && neuron.isTrainingAllowed()) {
+        if (getConfig().isFieldGraphTrainingEnabled() && neuron.isTrainingAllowed()) {
             connectGradientFields();
             connectWeightUpdate();
         }
@@ -235,6 +244,15 @@ public abstract class Activation<N extends Neuron> extends FieldObject implement
         );
     }
 
+    public void backwardEntropy(BackwardPass bp) {
+    }
+
+    public void backwardUpdateValue(BackwardPass bp) {
+    }
+
+    public void backwardWeightUpdate(BackwardPass bp) {
+    }
+
     public FieldOutput getIsFired() {
         return isFired;
     }
@@ -295,6 +313,11 @@ public abstract class Activation<N extends Neuron> extends FieldObject implement
         return thought;
     }
 
+    @Override
+    public Thought getThoughtScope() {
+        return thought;
+    }
+
     public Range getRange() {
         return range;
     }
@@ -319,7 +342,7 @@ public abstract class Activation<N extends Neuron> extends FieldObject implement
     }
 
     protected void propagateRangeAndTokenPosition() {
-        outputLinks.values().forEach(l ->
+        outputLinks.forEach(l ->
                 l.propagateRangeOrTokenPos()
         );
     }
@@ -339,10 +362,6 @@ public abstract class Activation<N extends Neuron> extends FieldObject implement
         return ID_COMPARATOR.compare(this, act);
     }
 
-    public OutputKey getOutputKey() {
-        return new OutputKey(getNeuronProvider(), getId());
-    }
-
     public String getLabel() {
         return getNeuron().getLabel();
     }
@@ -368,11 +387,11 @@ public abstract class Activation<N extends Neuron> extends FieldObject implement
     }
 
     public Link getInputLink(Neuron n) {
-        return inputLinks.get(n.getProvider());
+        return inputLinks.get(n.getId());
     }
 
     public Link getInputLink(Synapse s) {
-        return inputLinks.get(s.getPInput());
+        return inputLinks.get(s.getPInput().getId());
     }
 
     public <IL extends Link> Optional<IL> getInputLinkByType(Class<IL> linkType) {
@@ -394,43 +413,34 @@ public abstract class Activation<N extends Neuron> extends FieldObject implement
 
     public Stream<Link> getOutputLinks(Synapse s) {
         return outputLinks
-                .subMap(
-                        new OutputKey(s.getOutput().getProvider(), Integer.MIN_VALUE),
-                        true,
-                        new OutputKey(s.getOutput().getProvider(), MAX_VALUE),
-                        true
-                ).values()
-                .stream()
+                .stream(s.getPOutput().getId())
                 .filter(l -> l.getSynapse() == s);
     }
 
     public void linkInputs() {
-        inputLinks
-                .values()
+        inputLinks.stream()
                 .forEach(Link::linkInput);
     }
 
     public void unlinkInputs() {
-        inputLinks
-                .values()
+        inputLinks.stream()
                 .forEach(Link::unlinkInput);
     }
 
     public void linkOutputs() {
-        outputLinks
-                .values()
+        outputLinks.stream()
                 .forEach(Link::linkOutput);
     }
 
     public void unlinkOutputs() {
-        outputLinks
-                .values()
+        outputLinks.stream()
                 .forEach(Link::unlinkOutput);
     }
 
     public void linkOutputLink(Link l) {
         Link el = outputLinks.put(
-                new OutputKey(l.getOutput().getNeuronProvider(), l.getOutput().getId()),
+                l.getOutput().getNeuronProvider().getId(),
+                l.getOutput().getId(),
                 l
         );
 
@@ -439,19 +449,34 @@ public abstract class Activation<N extends Neuron> extends FieldObject implement
 
     public void linkInputLink(Link l) {
         Link el = inputLinks.put(
-                l.getInput() != null ? l.getInput().getNeuronProvider() : l.getSynapse().getPInput(),
+                getInputKey(l),
+                0,
                 l
         );
         assert el == null;
+
+        thought.getLatentActivationIndex()
+                .add(l, inputLinks.values());
+    }
+
+    private static long getInputKey(Link l) {
+        return l.getInput() != null ?
+                l.getInput().getNeuronProvider().getId() :
+                l.getSynapse().getPInput().getId();
     }
 
     public void unlinkOutputLink(Link l) {
-        OutputKey ok = l.getOutput().getOutputKey();
-        outputLinks.remove(ok, this);
+        outputLinks.remove(
+                l.getOutput().getNeuronProvider().getId(),
+                l.getOutput().getId(),
+                l
+        );
     }
 
     public void unlinkInputLink(Link l) {
-        inputLinks.remove(l.getInput().getNeuronProvider(), l);
+        if(inputLinks.remove(getInputKey(l), 0, l))
+            thought.getLatentActivationIndex()
+                    .remove(l, inputLinks.values());
     }
 
     public void link() {
@@ -474,13 +499,11 @@ public abstract class Activation<N extends Neuron> extends FieldObject implement
     }
 
     public Stream<Link> getInputLinks() {
-        return new ArrayList<>(inputLinks.values())
-                .stream();
+        return inputLinks.stream();
     }
 
     public Stream<Link> getOutputLinks() {
-        return new ArrayList<>(outputLinks.values())
-                .stream();
+        return outputLinks.stream();
     }
 
     public Activation getTemplate() {
@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.elements.activations;
+
+import network.aika.elements.links.Link;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+
+/**
+ * Per-thought storage for activations and links. Activations are stored in chunked arrays indexed by
+ * their dense activation id, links in parallel chunked arrays in the order of their creation. Since the
+ * chunks are never moved, growing the arena does not copy its elements. After a thought has been
+ * disconnected, its arena is reset and handed to the next thought of the same thread, so that the chunk
+ * arrays are reused rather than reallocated for each document.
+ *
+ * @author Lukas Molzberger
+ */
+public class ActivationArena {
+
+    private static final int CHUNK_BITS = 8;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private Activation[][] actChunks = new Activation[0][];
+    private int actIdRange;
+    private int numberOfActivations;
+
+    private Link[][] linkChunks = new Link[0][];
+    private int linkIdRange;
+    private int numberOfLinks;
+
+    private final Collection<Activation> activations = new ArenaCollection<>() {
+        @Override
+        protected Activation getSlot(int i) {
+            return actChunks[i >>> CHUNK_BITS][i & CHUNK_MASK];
+        }
+
+        @Override
+        protected int range() {
+            return actIdRange;
+        }
+
+        @Override
+        public int size() {
+            return numberOfActivations;
+        }
+    };
+
+    private final Collection<Link> links = new ArenaCollection<>() {
+        @Override
+        protected Link getSlot(int i) {
+            return linkChunks[i >>> CHUNK_BITS][i & CHUNK_MASK];
+        }
+
+        @Override
+        protected int range() {
+            return linkIdRange;
+        }
+
+        @Override
+        public int size() {
+            return numberOfLinks;
+        }
+    };
+
+    public void add(Activation act) {
+        int id = act.getId();
+        actChunks = ensureCapacity(actChunks, id, Activation[]::new);
+
+        Activation[] chunk = actChunks[id >>> CHUNK_BITS];
+        if(chunk[id & CHUNK_MASK] == null)
+            numberOfActivations++;
+
+        chunk[id & CHUNK_MASK] = act;
+        actIdRange = Math.max(actIdRange, id + 1);
+    }
+
+    public Activation get(int id) {
+        if(id < 0 || id >= actIdRange)
+            return null;
+
+        return actChunks[id >>> CHUNK_BITS][id & CHUNK_MASK];
+    }
+
+    /**
+     * @return the arena index of the link
+     */
+    public int add(Link l) {
+        int i = linkIdRange++;
+        linkChunks = ensureCapacity(linkChunks, i, Link[]::new);
+        linkChunks[i >>> CHUNK_BITS][i & CHUNK_MASK] = l;
+        numberOfLinks++;
+        return i;
+    }
+
+    public void remove(Link l, int i) {
+        if(i < 0 || i >= linkIdRange)
+            return;
+
+        Link[] chunk = linkChunks[i >>> CHUNK_BITS];
+        if(chunk[i & CHUNK_MASK] != l)
+            return;
+
+        chunk[i & CHUNK_MASK] = null;
+        numberOfLinks--;
+    }
+
+    /**
+     * @return an upper bound of the activation ids stored in this arena
+     */
+    public int getActivationIdRange() {
+        return actIdRange;
+    }
+
+    public Collection<Activation> getActivations() {
+        return activations;
+    }
+
+    public <A extends Activation> Stream<A> getActivations(Class<A> type) {
+        return activations.stream()
+                .filter(type::isInstance)
+                .map(type::cast);
+    }
+
+    public Collection<Link> getLinks() {
+        return links;
+    }
+
+    public <L extends Link> Stream<L> getLinks(Class<L> type) {
+        return links.stream()
+                .filter(type::isInstance)
+                .map(type::cast);
+    }
+
+    /**
+     * Releases all activations and links while keeping the allocated chunks.
+     */
+    public void reset() {
+        clear(actChunks, actIdRange);
+        clear(linkChunks, linkIdRange);
+
+        actIdRange = 0;
+        numberOfActivations = 0;
+        linkIdRange = 0;
+        numberOfLinks = 0;
+    }
+
+    private static void clear(Object[][] chunks, int range) {
+        for(int c = 0; c << CHUNK_BITS < range; c++)
+            Arrays.fill(chunks[c], null);
+    }
+
+    private static <E> E[][] ensureCapacity(E[][] chunks, int i, IntFunction<E[]> newChunk) {
+        int c = i >>> CHUNK_BITS;
+        if(c < chunks.length && chunks[c] != null)
+            return chunks;
+
+        if(c >= chunks.length)
+            chunks = Arrays.copyOf(chunks, Math.max(c + 1, chunks.length * 2));
+
+        for(int j = 0; j <= c; j++) {
+            if(chunks[j] == null)
+                chunks[j] = newChunk.apply(CHUNK_SIZE);
+        }
+        return chunks;
+    }
+
+    private static abstract class ArenaCollection<E> extends AbstractCollection<E> {
+
+        protected abstract E getSlot(int i);
+
+        protected abstract int range();
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<>() {
+                int i = advance(0);
+
+                private int advance(int from) {
+                    int r = range();
+                    while(from < r && getSlot(from) == null)
+                        from++;
+                    return from;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return i < range();
+                }
+
+                @Override
+                public E next() {
+                    if(!hasNext())
+                        throw new NoSuchElementException();
+
+                    E e = getSlot(i);
+                    i = advance(i + 1);
+                    return e;
+                }
+            };
+        }
+    }
+}
@@ -25,6 +25,7 @@ import network.aika.elements.neurons.BindingNeuron;
 import network.aika.visitor.DownVisitor;
 import network.aika.visitor.linking.pattern.PatternCategoryDownVisitor;
 import network.aika.visitor.linking.pattern.PatternCategoryUpVisitor;
+import network.aika.training.BackwardPass;
 
 import java.util.stream.Stream;
 
@@ -65,6 +66,12 @@ public class BindingActivation extends ConjunctiveActivation<BindingNeuron> {
         super.connectWeightUpdate();
     }
 
+    @Override
+    public void backwardUpdateValue(BackwardPass bp) {
+        // The update value is the sum of the contributions of the positive feedback links.
+        bp.addUpdateValue(this, 0.0);
+    }
+
     @Override
     public void patternVisitDown(DownVisitor v, Link lastLink) {
         super.patternVisitDown(v, lastLink);
@@ -55,8 +55,7 @@ public class CategoryActivation extends DisjunctiveActivation<CategoryNeuron> {
     }
 
     public Stream<Activation> getCategoryInputs() {
-        return inputLinks.values()
-                .stream()
+        return inputLinks.stream()
                 .map(l -> l.getInput());
     }
 
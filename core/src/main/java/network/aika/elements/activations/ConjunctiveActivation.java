@@ -21,6 +21,7 @@ import network.aika.elements.links.CategoryInputLink;
 import network.aika.elements.links.ConjunctiveLink;
 import network.aika.elements.neurons.ConjunctiveNeuron;
 import network.aika.elements.synapses.ConjunctiveSynapse;
+import network.aika.training.BackwardPass;
 
 import java.util.stream.Stream;
 
@@ -63,6 +64,14 @@ public abstract class ConjunctiveActivation<N extends ConjunctiveNeuron<?>> exte
         );
     }
 
+    @Override
+    public void backwardWeightUpdate(BackwardPass bp) {
+        if(!bp.hasUpdateValue(this))
+            return;
+
+        bp.addParameterDelta(getNeuron().getBias(), bp.getUpdateValue(this));
+    }
+
     @Override
     protected void initNet() {
         super.initNet();
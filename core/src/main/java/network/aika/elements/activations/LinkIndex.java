@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.elements.activations;
+
+import network.aika.elements.links.Link;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Compact adjacency list for the input or output links of an activation. The links are kept in
+ * arrays sorted by a primitive key pair, the neuron id and the activation id of the linked activation.
+ * Since most activations only have a handful of links, the arrays start small and are grown on demand.
+ * Small arrays are scanned linearly, larger ones are searched binary. Neither lookups nor range queries
+ * need to allocate key objects.
+ *
+ * @author Lukas Molzberger
+ */
+public class LinkIndex {
+
+    private static final long[] EMPTY_NEURON_IDS = new long[0];
+    private static final int[] EMPTY_ACT_IDS = new int[0];
+    private static final Link[] EMPTY_LINKS = new Link[0];
+
+    private static final int INITIAL_CAPACITY = 2;
+    private static final int LINEAR_SEARCH_THRESHOLD = 8;
+
+    private long[] neuronIds = EMPTY_NEURON_IDS;
+    private int[] actIds = EMPTY_ACT_IDS;
+    private Link[] links = EMPTY_LINKS;
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the first link to an activation of the given neuron
+     */
+    public Link get(long neuronId) {
+        int i = lowerBound(neuronId, Integer.MIN_VALUE);
+        return i < size && neuronIds[i] == neuronId ?
+                links[i] :
+                null;
+    }
+
+    public Link put(long neuronId, int actId, Link l) {
+        int i = lowerBound(neuronId, actId);
+        if(i < size && neuronIds[i] == neuronId && actIds[i] == actId) {
+            Link el = links[i];
+            links[i] = l;
+            return el;
+        }
+
+        if(size == links.length)
+            grow();
+
+        System.arraycopy(neuronIds, i, neuronIds, i + 1, size - i);
+        System.arraycopy(actIds, i, actIds, i + 1, size - i);
+        System.arraycopy(links, i, links, i + 1, size - i);
+
+        neuronIds[i] = neuronId;
+        actIds[i] = actId;
+        links[i] = l;
+        size++;
+        return null;
+    }
+
+    /**
+     * Removes the entry for the given key, if it maps to the given link.
+     */
+    public boolean remove(long neuronId, int actId, Link l) {
+        int i = lowerBound(neuronId, actId);
+        if(i >= size || links[i] != l || neuronIds[i] != neuronId || actIds[i] != actId)
+            return false;
+
+        size--;
+        System.arraycopy(neuronIds, i + 1, neuronIds, i, size - i);
+        System.arraycopy(actIds, i + 1, actIds, i, size - i);
+        System.arraycopy(links, i + 1, links, i, size - i);
+        links[size] = null;
+        return true;
+    }
+
+    public void forEach(Consumer<Link> action) {
+        for(int i = 0; i < size; i++)
+            action.accept(links[i]);
+    }
+
+    /**
+     * @return a read-only view of the links in key order
+     */
+    public List<Link> values() {
+        return Collections.unmodifiableList(
+                Arrays.asList(links).subList(0, size)
+        );
+    }
+
+    /**
+     * @return a stream over a snapshot of the links in key order, the index may be modified while the
+     * stream is consumed
+     */
+    public Stream<Link> stream() {
+        if(size == 0)
+            return Stream.empty();
+
+        return Arrays.stream(Arrays.copyOf(links, size));
+    }
+
+    /**
+     * @return a stream over a snapshot of all links to activations of the given neuron
+     */
+    public Stream<Link> stream(long neuronId) {
+        int from = lowerBound(neuronId, Integer.MIN_VALUE);
+        int to = from;
+        while(to < size && neuronIds[to] == neuronId)
+            to++;
+
+        if(from == to)
+            return Stream.empty();
+
+        return Arrays.stream(Arrays.copyOfRange(links, from, to));
+    }
+
+    private int lowerBound(long neuronId, int actId) {
+        if(size <= LINEAR_SEARCH_THRESHOLD) {
+            int i = 0;
+            while(i < size && compare(i, neuronId, actId) < 0)
+                i++;
+            return i;
+        }
+
+        int low = 0;
+        int high = size;
+        while(low < high) {
+            int mid = (low + high) >>> 1;
+            if(compare(mid, neuronId, actId) < 0)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+    private int compare(int i, long neuronId, int actId) {
+        int r = Long.compare(neuronIds[i], neuronId);
+        return r != 0 ?
+                r :
+                Integer.compare(actIds[i], actId);
+    }
+
+    private void grow() {
+        int capacity = Math.max(INITIAL_CAPACITY, links.length * 2);
+        neuronIds = Arrays.copyOf(neuronIds, capacity);
+        actIds = Arrays.copyOf(actIds, capacity);
+        links = Arrays.copyOf(links, capacity);
+    }
+}
@@ -25,6 +25,7 @@ import network.aika.elements.neurons.PatternNeuron;
 import network.aika.visitor.DownVisitor;
 import network.aika.sign.Sign;
 import network.aika.visitor.linking.pattern.PatternCategoryDownVisitor;
+import network.aika.training.BackwardPass;
 
 import static network.aika.fields.Fields.*;
 import static network.aika.utils.Utils.TOLERANCE;
@@ -77,6 +78,28 @@ public class PatternActivation extends ConjunctiveActivation<PatternNeuron> {
         super.connectWeightUpdate();
     }
 
+    @Override
+    public void backwardEntropy(BackwardPass bp) {
+        bp.setEntropy(
+                this,
+                getNeuron().getSurprisal(
+                        Sign.getSign(net.getCurrentValue()),
+                        getAbsoluteRange(),
+                        true
+                )
+        );
+    }
+
+    @Override
+    public void backwardUpdateValue(BackwardPass bp) {
+        bp.addUpdateValue(
+                this,
+                getConfig().getLearnRate(neuron.isAbstract()) *
+                        bp.getGradient(this) *
+                        getNeuron().getActivationFunction().outerGrad(net.getCurrentValue())
+        );
+    }
+
     public FieldOutput getEntropy() {
         return entropy;
     }
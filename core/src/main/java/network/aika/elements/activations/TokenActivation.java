@@ -23,6 +23,7 @@ import network.aika.elements.neurons.LatentRelationNeuron;
 import network.aika.elements.neurons.TokenNeuron;
 import network.aika.visitor.DownVisitor;
 import network.aika.text.Document;
+import network.aika.training.BackwardPass;
 
 import java.util.Comparator;
 import java.util.Map;
@@ -59,6 +60,11 @@ public class TokenActivation extends PatternActivation {
         // Input activations don't need weight updates
     }
 
+    @Override
+    public void backwardUpdateValue(BackwardPass bp) {
+        // Input activations don't need weight updates
+    }
+
     public Map<LatentRelationNeuron, LatentRelationActivation> getToRelations() {
         return toRelations;
     }
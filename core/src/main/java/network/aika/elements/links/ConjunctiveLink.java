@@ -20,6 +20,7 @@ import network.aika.elements.activations.Activation;
 import network.aika.elements.activations.ConjunctiveActivation;
 import network.aika.elements.synapses.ConjunctiveSynapse;
 import network.aika.fields.FieldOutput;
+import network.aika.training.BackwardPass;
 
 import static network.aika.fields.FieldLink.linkAndConnect;
 import static network.aika.fields.Fields.*;
@@ -83,6 +84,19 @@ public abstract class ConjunctiveLink<S extends ConjunctiveSynapse, IA extends A
         );
     }
 
+    @Override
+    public void backwardWeightUpdate(BackwardPass bp) {
+        if(!bp.hasUpdateValue(output))
+            return;
+
+        double updateValue = bp.getUpdateValue(output);
+        double inputValue = getInputValue().getCurrentValue();
+        double negInputValue = getNegInputValue().getCurrentValue();
+
+        bp.addParameterDelta(synapse.getWeight(), (inputValue + negInputValue) * updateValue);
+        bp.addParameterDelta(getSynapse().getSynapseBias(), -negInputValue * updateValue);
+    }
+
     public FieldOutput getWeightUpdatePosCase() {
         return weightUpdatePosCase;
     }
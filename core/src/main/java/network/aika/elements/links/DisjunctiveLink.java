@@ -18,6 +18,7 @@ package network.aika.elements.links;
 
 import network.aika.elements.activations.Activation;
 import network.aika.elements.synapses.DisjunctiveSynapse;
+import network.aika.training.BackwardPass;
 
 import static network.aika.fields.FieldLink.linkAndConnect;
 import static network.aika.fields.Fields.mul;
@@ -43,4 +44,15 @@ public class DisjunctiveLink<S extends DisjunctiveSynapse, IA extends Activation
                 synapse.getWeight()
         );
     }
+
+    @Override
+    public void backwardWeightUpdate(BackwardPass bp) {
+        if(!bp.hasUpdateValue(output))
+            return;
+
+        bp.addParameterDelta(
+                synapse.getWeight(),
+                getInput().getIsFired().getCurrentValue() * bp.getUpdateValue(output)
+        );
+    }
 }
@@ -21,6 +21,7 @@ import network.aika.elements.activations.PatternActivation;
 import network.aika.elements.synapses.InputPatternSynapse;
 import network.aika.fields.AbstractFunction;
 import network.aika.fields.Fields;
+import network.aika.training.BackwardPass;
 import network.aika.visitor.Visitor;
 
 /**
@@ -47,6 +48,14 @@ public class InputPatternLink extends BindingNeuronLink<InputPatternSynapse, Pat
         );
     }
 
+    @Override
+    public double backwardGradient(BackwardPass bp) {
+        if(!bp.hasEntropy(input))
+            return 0.0;
+
+        return -bp.getEntropy(input);
+    }
+
     @Override
     public void patternVisit(Visitor v) {
     }
@@ -26,6 +26,7 @@ import network.aika.elements.synapses.Synapse;
 import network.aika.visitor.Visitor;
 import network.aika.visitor.selfref.SelfRefDownVisitor;
 import network.aika.steps.link.LinkingIn;
+import network.aika.training.BackwardPass;
 
 import static network.aika.callbacks.EventType.CREATE;
 import static network.aika.fields.ConstantField.ONE;
@@ -45,6 +46,8 @@ public abstract class Link<S extends Synapse, I extends Activation<?>, O extends
     protected final I input;
     protected O output;
 
+    private int arenaIndex;
+
     protected FieldOutput weightedInput;
 
     protected SumField gradient;
@@ -55,11 +58,12 @@ public abstract class Link<S extends Synapse, I extends Activation<?>, O extends
         this.output = output;
 
         link();
+        arenaIndex = getThought().register(this);
 
         if(input != null && output != null) {
             initWeightInput();
 
-            if (getConfig().isTrainingEnabled() && getSynapse().isTrainingAllowed()) {
+            if (getConfig().isFieldGraphTrainingEnabled() && getSynapse().isTrainingAllowed()) {
                 connectGradientFields();
                 connectWeightUpdate();
             }
@@ -117,6 +121,19 @@ public abstract class Link<S extends Synapse, I extends Activation<?>, O extends
 
     public abstract void connectWeightUpdate();
 
+    /**
+     * @return the contribution of this link to the gradient of the output activation
+     */
+    public double backwardGradient(BackwardPass bp) {
+        return 0.0;
+    }
+
+    public void backwardUpdateValue(BackwardPass bp) {
+    }
+
+    public void backwardWeightUpdate(BackwardPass bp) {
+    }
+
     protected void initWeightInput() {
         weightedInput = initWeightedInput();
         linkAndConnect(weightedInput, getOutput().getNet());
@@ -217,6 +234,10 @@ public abstract class Link<S extends Synapse, I extends Activation<?>, O extends
         output.linkInputLink(this);
     }
 
+    public int getArenaIndex() {
+        return arenaIndex;
+    }
+
     public void unlinkInput() {
         input.unlinkOutputLink(this);
     }
@@ -242,6 +263,11 @@ public abstract class Link<S extends Synapse, I extends Activation<?>, O extends
         return output.getThought();
     }
 
+    @Override
+    public Thought getThoughtScope() {
+        return getThought();
+    }
+
     private String getInputKeyString() {
         return (input != null ? input.toKeyString() : "id:X n:[" + synapse.getInput() + "]");
     }
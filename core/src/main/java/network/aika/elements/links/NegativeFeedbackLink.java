@@ -20,6 +20,7 @@ import network.aika.elements.activations.BindingActivation;
 import network.aika.elements.activations.InhibitoryActivation;
 import network.aika.fields.*;
 import network.aika.elements.synapses.NegativeFeedbackSynapse;
+import network.aika.training.BackwardPass;
 import network.aika.visitor.Visitor;
 
 import static network.aika.fields.FieldLink.linkAndConnect;
@@ -83,6 +84,17 @@ public class NegativeFeedbackLink extends FeedbackLink<NegativeFeedbackSynapse,
         );
     }
 
+    @Override
+    public void backwardWeightUpdate(BackwardPass bp) {
+        if(!bp.hasUpdateValue(output))
+            return;
+
+        bp.addParameterDelta(
+                synapse.getWeight(),
+                -getInput().getIsFired().getCurrentValue() * bp.getUpdateValue(output)
+        );
+    }
+
     public MinMaxField getMaxInput() {
         return maxInput;
     }
@@ -24,6 +24,7 @@ import network.aika.elements.synapses.PositiveFeedbackSynapse;
 import network.aika.fields.SumField;
 import network.aika.sign.Sign;
 import network.aika.steps.link.LinkCounting;
+import network.aika.training.BackwardPass;
 import network.aika.visitor.Visitor;
 
 import static network.aika.fields.FieldLink.linkAndConnect;
@@ -83,6 +84,20 @@ public class PatternLink extends ConjunctiveLink<PatternSynapse, BindingActivati
 
     }
 
+    @Override
+    public double backwardGradient(BackwardPass bp) {
+        double informationGain = synapse.getSurprisal(
+                Sign.getSign(input.getNet().getCurrentValue()),
+                Sign.getSign(output.getNet().getCurrentValue()),
+                input.getAbsoluteRange(),
+                true
+        );
+
+        return bp.getGradient(input) +
+                informationGain -
+                bp.getEntropy(output);
+    }
+
     public AbstractFunction getOutputEntropy() {
         return outputEntropy;
     }
@@ -20,6 +20,7 @@ import network.aika.elements.activations.BindingActivation;
 import network.aika.elements.activations.PatternActivation;
 import network.aika.elements.synapses.PositiveFeedbackSynapse;
 import network.aika.fields.Multiplication;
+import network.aika.training.BackwardPass;
 import network.aika.visitor.Visitor;
 
 import static network.aika.fields.Fields.mul;
@@ -53,6 +54,16 @@ public class PositiveFeedbackLink extends FeedbackLink<PositiveFeedbackSynapse,
         );
     }
 
+    @Override
+    public void backwardUpdateValue(BackwardPass bp) {
+        bp.addUpdateValue(
+                output,
+                getConfig().getLearnRate(output.getNeuron().isAbstract()) *
+                        bp.getGradient(input) *
+                        output.getNeuron().getActivationFunction().outerGrad(output.getNet().getCurrentValue())
+        );
+    }
+
     @Override
     public void addInputLinkingStep() {
     }
@@ -40,19 +40,14 @@ public class BindingNeuron extends ConjunctiveNeuron<BindingActivation> {
     }
 
     public List<RelationInputSynapse> findLatentRelationNeurons() {
-        return getInputSynapsesAsStream()
-                .filter(s -> s instanceof RelationInputSynapse)
-                .map(s -> (RelationInputSynapse) s)
+        return getInputSynapsesByType(RelationInputSynapse.class)
                 .collect(Collectors.toList());
     }
 
     @Override
     public void startVisitor(LinkingOperator c, Activation act, Synapse syn) {
         Thought t = act.getThought();
-        RelationInputSynapse rel = findLatentRelationNeurons()
-                .stream()
-                .findAny()
-                .orElse(null);
+        RelationInputSynapse rel = getInputSynapseByType(RelationInputSynapse.class);
 
         BindingDownVisitor v = rel != null ?
                 new RelationLinkingDownVisitor(t, c, rel, c.getRelationDir(syn.getScope())) :
@@ -20,8 +20,6 @@ import network.aika.direction.Direction;
 import network.aika.elements.activations.TokenActivation;
 import network.aika.text.Document;
 
-import java.util.stream.Stream;
-
 
 /**
  *
@@ -47,7 +45,7 @@ public class CharPositionRelationNeuron extends LatentRelationNeuron {
     }
 
     @Override
-    public Stream<TokenActivation> evaluateLatentRelation(TokenActivation fromOriginAct, Direction dir) {
+    public TokenActivation[] evaluateLatentRelation(TokenActivation fromOriginAct, Direction dir) {
         Document doc = (Document) fromOriginAct.getThought();
 /*
         Range r = fromOriginAct.getRange();
@@ -23,20 +23,22 @@ import network.aika.elements.synapses.CategorySynapse;
 import network.aika.elements.synapses.CategoryInputSynapse;
 import network.aika.elements.synapses.ConjunctiveSynapse;
 import network.aika.elements.synapses.Synapse;
+import network.aika.fields.ListenerFieldLink;
 import network.aika.fields.QueueSumField;
 import network.aika.fields.SumField;
+import network.aika.visitor.ActLinkingOperator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.Comparator;
-import java.util.stream.Collectors;
+import java.util.*;
 
 import static network.aika.direction.Direction.INPUT;
 import static network.aika.direction.Direction.OUTPUT;
+import static network.aika.elements.synapses.Synapse.getLatentLinkingPreNet;
+import static network.aika.fields.ListenerFieldLink.createUpdateListener;
 import static network.aika.steps.Phase.TRAINING;
 import static network.aika.utils.Utils.TOLERANCE;
 
@@ -50,23 +52,44 @@ public abstract class ConjunctiveNeuron<A extends ConjunctiveActivation> extends
 
     protected SumField synapseBiasSum = initSynapseBiasSum();
 
+    /**
+     * Viable latent linking partners per input synapse, sorted by descending upper bound pre-net.
+     * The table is built lazily and dropped whenever an input synapse is added or removed, or the weight
+     * or the sum of lower weights of one of the input synapses changes.
+     */
+    private volatile Map<Synapse, Synapse[]> latentLinkingPartners;
+
+    /**
+     * The weight listeners that drop the latent linking partners, keyed by the id of the input neuron of
+     * the synapse. Only one listener is registered per input synapse, it is removed together with the
+     * synapse or when this neuron is suspended.
+     */
+    private final Map<Long, ListenerFieldLink> latentLinkingListeners = new HashMap<>();
+
+    /**
+     * Input synapses ordered by their sorting weight. Built lazily and maintained incrementally on
+     * weight updates, so that the sum of lower weights only needs to be rewritten from the position
+     * of the changed synapse on. Guarded by inputSynapseOrderLock, since the input synapses of a neuron
+     * may be added concurrently by the worker threads of a data-parallel training.
+     */
+    private volatile InputSynapseOrder inputSynapseOrder;
+
+    private final Object inputSynapseOrderLock = new Object();
+
     public ConjunctiveNeuron() {
-        bias.addEventListener(
-                "onBiasUpdate",
-                this::updateSumOfLowerWeights,
-                true
-        );
-        synapseBiasSum.addEventListener(
-                "onSynapseBiasSumUpdate",
-                this::updateSumOfLowerWeights,
-                true
+        bias.addUpdateListener(
+                "onBiasUpdate (sum of lower weights)",
+                (fl, u) -> updateSumOfLowerWeights()
         );
     }
 
     protected SumField initSynapseBiasSum() {
-        return (SumField) new QueueSumField(this, TRAINING, "synapseBiasSum", TOLERANCE)
+        return (SumField) new QueueSumField(this, TRAINING, "synapseBiasSum", TOLERANCE, true)
                 .addListener("onSynapseBiasSumModified", () ->
                         setModified()
+                )
+                .addUpdateListener("onSynapseBiasSumUpdate", (fl, u) ->
+                        invalidateInputNeuronIndexes()
                 );
     }
 
@@ -79,7 +102,97 @@ public abstract class ConjunctiveNeuron<A extends ConjunctiveActivation> extends
         super.reactivate(m);
 
         getProvider().getInputSynapses()
-                .forEach(Synapse::linkFields);
+                .forEach(s -> {
+                    s.linkFields();
+                    addLatentLinkingListener(s);
+                });
+    }
+
+    @Override
+    public void suspend() {
+        super.suspend();
+
+        // The synapses stored at the input side outlive this neuron object.
+        List<ListenerFieldLink> listeners;
+        synchronized (latentLinkingListeners) {
+            listeners = new ArrayList<>(latentLinkingListeners.values());
+            latentLinkingListeners.clear();
+        }
+        listeners.forEach(ConjunctiveNeuron::unlinkListener);
+    }
+
+    @Override
+    public void latentLinkOutgoing(Synapse synA, Activation iActA) {
+        for(Synapse synB: getLatentLinkingPartners(synA))
+            synB.getOutput().startVisitor(
+                    new ActLinkingOperator(iActA, synA, null, synB),
+                    iActA,
+                    synB
+            );
+    }
+
+    public Synapse[] getLatentLinkingPartners(Synapse synA) {
+        Map<Synapse, Synapse[]> partners = latentLinkingPartners;
+        if(partners == null) {
+            partners = new IdentityHashMap<>();
+            latentLinkingPartners = partners;
+        }
+
+        synchronized (partners) {
+            return partners.computeIfAbsent(synA, this::computeLatentLinkingPartners);
+        }
+    }
+
+    private Synapse[] computeLatentLinkingPartners(Synapse synA) {
+        return getInputSynapsesAsStream()
+                .filter(synB -> synA != synB)
+                .filter(synB -> !synB.isFeedbackSynapse())
+                .filter(synB -> getLatentLinkingPreNet(synA, synB) > 0.0)
+                .sorted(Comparator.comparingDouble(synB -> -getLatentLinkingPreNet(synA, synB)))
+                .toArray(Synapse[]::new);
+    }
+
+    public void invalidateLatentLinkingPartners() {
+        latentLinkingPartners = null;
+    }
+
+    private void addLatentLinkingListener(Synapse s) {
+        ListenerFieldLink fl;
+        ListenerFieldLink replaced;
+        synchronized (latentLinkingListeners) {
+            replaced = latentLinkingListeners.get(s.getPInput().getId());
+            if(replaced != null && replaced.getInput() == s.getWeight())
+                return;
+
+            fl = createUpdateListener(s.getWeight(), "onWeightUpdate (latent linking)", (arg, u) ->
+                    invalidateLatentLinkingPartners()
+            );
+            latentLinkingListeners.put(s.getPInput().getId(), fl);
+        }
+
+        // The listener of a replaced synapse of the same input neuron.
+        if(replaced != null)
+            unlinkListener(replaced);
+
+        s.getWeight().addOutput(fl);
+        fl.connect(false);
+    }
+
+    private void removeLatentLinkingListener(Synapse s) {
+        ListenerFieldLink fl;
+        synchronized (latentLinkingListeners) {
+            fl = latentLinkingListeners.get(s.getPInput().getId());
+            if(fl == null || fl.getInput() != s.getWeight())
+                return;
+
+            latentLinkingListeners.remove(s.getPInput().getId());
+        }
+        unlinkListener(fl);
+    }
+
+    private static void unlinkListener(ListenerFieldLink fl) {
+        fl.disconnect(false);
+        fl.getInput().removeOutput(fl);
     }
 
     @Override
@@ -123,10 +236,52 @@ public abstract class ConjunctiveNeuron<A extends ConjunctiveActivation> extends
     }
 
     protected void updateSumOfLowerWeights() {
-        ConjunctiveSynapse[] inputSynapses = sortInputSynapses();
+        if(deferSumOfLowerWeights())
+            return;
+
+        synchronized (inputSynapseOrderLock) {
+            updateSumOfLowerWeights(getInputSynapseOrder(), 0);
+        }
+    }
+
+    protected void updateSumOfLowerWeights(ConjunctiveSynapse s) {
+        if(deferSumOfLowerWeights())
+            return;
+
+        synchronized (inputSynapseOrderLock) {
+            InputSynapseOrder order = getInputSynapseOrder();
+            int from = order.update(s);
+            if(from < 0) {
+                inputSynapseOrder = null;
+                order = getInputSynapseOrder();
+                from = 0;
+            }
+
+            updateSumOfLowerWeights(order, from);
+        }
+    }
+
+    private boolean deferSumOfLowerWeights() {
+        if(!getModel().getMiniBatch().deferNeuronUpdate(this, this::updateSumOfLowerWeights))
+            return false;
+
+        // Several weights change at once while a mini-batch is applied, the order needs to be rebuilt.
+        inputSynapseOrder = null;
+        return true;
+    }
+
+    private void updateSumOfLowerWeights(InputSynapseOrder order, int from) {
+        if(!order.isPrefixSumsComputed())
+            from = 0;
+
+        double sum = from > 0 ?
+                order.getPrefixSum(from) :
+                bias.getUpdatedCurrentValue();
+
+        for(int i = from; i < order.size(); i++) {
+            ConjunctiveSynapse s = order.get(i);
+            order.setPrefixSum(i, sum);
 
-        double sum = bias.getUpdatedCurrentValue();
-        for(ConjunctiveSynapse s: inputSynapses) {
             double w = s.getWeight().getUpdatedCurrentValue();
             if(w <= 0.0)
                 continue;
@@ -140,28 +295,39 @@ public abstract class ConjunctiveNeuron<A extends ConjunctiveActivation> extends
                             INPUT
             );
         }
+        order.setPrefixSumsComputed();
+    }
+
+    private InputSynapseOrder getInputSynapseOrder() {
+        InputSynapseOrder order = inputSynapseOrder;
+        if(order == null) {
+            order = new InputSynapseOrder(getInputSynapsesByType(ConjunctiveSynapse.class));
+            inputSynapseOrder = order;
+        }
+        return order;
     }
 
     @Override
     public void addInputSynapse(Synapse s) {
         super.addInputSynapse(s);
-        s.getWeight().addEventListener(
-                "onWeightUpdate",
-                this::updateSumOfLowerWeights,
-                true
-        );
-    }
+        inputSynapseOrder = null;
 
-    private ConjunctiveSynapse[] sortInputSynapses() {
-        ConjunctiveSynapse[] inputsSynapses = getInputSynapsesByType(ConjunctiveSynapse.class)
-                .collect(Collectors.toList())
-                .toArray(new ConjunctiveSynapse[0]);
+        if(s instanceof ConjunctiveSynapse)
+            s.getWeight().addUpdateListener(
+                    "onWeightUpdate (sum of lower weights)",
+                    (fl, u) -> updateSumOfLowerWeights((ConjunctiveSynapse) s)
+            );
 
-        Arrays.sort(
-                inputsSynapses,
-                Comparator.comparingDouble(s -> s.getSortingWeight())
-        );
-        return inputsSynapses;
+        addLatentLinkingListener(s);
+        invalidateLatentLinkingPartners();
+    }
+
+    @Override
+    public void removeInputSynapse(Synapse s) {
+        super.removeInputSynapse(s);
+        inputSynapseOrder = null;
+        removeLatentLinkingListener(s);
+        invalidateLatentLinkingPartners();
     }
 
 
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.elements.neurons;
+
+import network.aika.elements.synapses.ConjunctiveSynapse;
+
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * The input synapses of a conjunctive neuron in ascending order of their sorting weight, together with the
+ * prefix sums of their positive weights. The sorting key of each synapse is remembered, so that a single
+ * weight change only moves the affected synapse within the order. Only the prefix sums from the first
+ * affected position on need to be recomputed afterwards. Ties are broken by the id of the input neuron.
+ * The prefix sums of a newly built order are undefined until they have been computed once from the first
+ * position on.
+ *
+ * @author Lukas Molzberger
+ */
+public class InputSynapseOrder {
+
+    private final ConjunctiveSynapse[] synapses;
+    private final double[] keys;
+    private final double[] prefixSums;
+    private boolean prefixSumsComputed;
+
+    private final Map<ConjunctiveSynapse, Double> keyBySynapse = new IdentityHashMap<>();
+
+    public InputSynapseOrder(Stream<ConjunctiveSynapse> inputSynapses) {
+        synapses = inputSynapses
+                .sorted(
+                        Comparator.<ConjunctiveSynapse>comparingDouble(s -> s.getSortingWeight())
+                                .thenComparingLong(s -> s.getPInput().getId())
+                )
+                .toArray(ConjunctiveSynapse[]::new);
+
+        keys = new double[synapses.length];
+        for(int i = 0; i < synapses.length; i++) {
+            keys[i] = synapses[i].getSortingWeight();
+            keyBySynapse.put(synapses[i], keys[i]);
+        }
+
+        prefixSums = new double[synapses.length];
+    }
+
+    public int size() {
+        return synapses.length;
+    }
+
+    public ConjunctiveSynapse get(int i) {
+        return synapses[i];
+    }
+
+    public double getPrefixSum(int i) {
+        return prefixSums[i];
+    }
+
+    public void setPrefixSum(int i, double sum) {
+        prefixSums[i] = sum;
+    }
+
+    public boolean isPrefixSumsComputed() {
+        return prefixSumsComputed;
+    }
+
+    public void setPrefixSumsComputed() {
+        prefixSumsComputed = true;
+    }
+
+    public int indexOf(ConjunctiveSynapse s) {
+        Double key = keyBySynapse.get(s);
+        if(key == null)
+            return -1;
+
+        long id = s.getPInput().getId();
+        int low = 0;
+        int high = synapses.length - 1;
+        while(low <= high) {
+            int mid = (low + high) >>> 1;
+            int c = compare(key, id, mid);
+            if(c == 0)
+                return mid;
+
+            if(c < 0)
+                high = mid - 1;
+            else
+                low = mid + 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Moves the synapse to the position of its current sorting weight.
+     *
+     * @return the first position whose prefix sum is affected by the change, or -1 if the synapse is not
+     * part of this order.
+     */
+    public int update(ConjunctiveSynapse s) {
+        int oldPos = indexOf(s);
+        if(oldPos < 0)
+            return -1;
+
+        double newKey = s.getSortingWeight();
+        if(newKey == keys[oldPos])
+            return oldPos;
+
+        long id = s.getPInput().getId();
+        int newPos = oldPos;
+        while(newPos > 0 && compare(newKey, id, newPos - 1) < 0) {
+            synapses[newPos] = synapses[newPos - 1];
+            keys[newPos] = keys[newPos - 1];
+            newPos--;
+        }
+        while(newPos < synapses.length - 1 && compare(newKey, id, newPos + 1) > 0) {
+            synapses[newPos] = synapses[newPos + 1];
+            keys[newPos] = keys[newPos + 1];
+            newPos++;
+        }
+        synapses[newPos] = s;
+        keys[newPos] = newKey;
+        keyBySynapse.put(s, newKey);
+
+        return Math.min(oldPos, newPos);
+    }
+
+    private int compare(double key, long id, int pos) {
+        int c = Double.compare(key, keys[pos]);
+        if(c != 0)
+            return c;
+
+        return Long.compare(id, synapses[pos].getPInput().getId());
+    }
+}
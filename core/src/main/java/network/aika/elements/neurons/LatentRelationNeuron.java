@@ -18,14 +18,12 @@ package network.aika.elements.neurons;
 
 import network.aika.Thought;
 import network.aika.direction.Direction;
-import network.aika.fields.QueueSumField;
+import network.aika.fields.BatchedSumField;
 import network.aika.fields.SumField;
 import network.aika.elements.activations.LatentRelationActivation;
 import network.aika.elements.activations.TokenActivation;
 
 
-import java.util.stream.Stream;
-
 import static network.aika.steps.Phase.TRAINING;
 import static network.aika.utils.Utils.TOLERANCE;
 
@@ -56,11 +54,11 @@ public abstract class LatentRelationNeuron extends BindingNeuron {
     }
 
 
-    public abstract Stream<TokenActivation> evaluateLatentRelation(TokenActivation fromOriginAct, Direction dir);
+    public abstract TokenActivation[] evaluateLatentRelation(TokenActivation fromOriginAct, Direction dir);
 
     @Override
     protected SumField initBias() {
-        return (SumField) new QueueSumField(this, TRAINING, "bias", TOLERANCE)
+        return (SumField) new BatchedSumField(this, TRAINING, "bias", TOLERANCE, true)
                 .setInitialValue(10.0);
     }
 
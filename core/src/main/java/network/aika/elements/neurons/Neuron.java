@@ -61,6 +61,15 @@ public abstract class Neuron<A extends Activation> extends FieldObject implement
 
     private volatile boolean modified;
 
+    /**
+     * Dirty state at the granularity of the stored record: the header consists of all fields except for
+     * the stored synapses, which are tracked individually. The modified and removed synapses are written
+     * as a delta record if the suspension callback supports it.
+     */
+    private boolean headerModified;
+    private Set<Synapse> modifiedSynapses = Collections.emptySet();
+    private Set<Synapse> removedSynapses = Collections.emptySet();
+
     private NeuronProvider provider;
 
     private String label;
@@ -77,6 +86,24 @@ public abstract class Neuron<A extends Activation> extends FieldObject implement
 
     private boolean callActivationCheckCallback;
 
+    private volatile OutputSynapseIndex outputSynapseIndex;
+
+    /**
+     * The pages of the input synapses stored at this neuron, keyed by the id of the input neuron, and of the
+     * output synapses stored at this neuron, keyed by the id of the output neuron. Pages that have not been
+     * required yet since the neuron was reactivated are kept serialized.
+     */
+    private final SynapsePages inputSynapsePages = new SynapsePages(true, s -> s.getPInput().getId());
+    private final SynapsePages outputSynapsePages = new SynapsePages(false, s -> s.getPOutput().getId());
+
+    private volatile boolean loadingSynapsePages;
+
+    public Neuron() {
+        bias.addUpdateListener("onBiasUpdate", (fl, u) ->
+                invalidateInputNeuronIndexes()
+        );
+    }
+
 
     public Long getId() {
         return provider.getId();
@@ -143,7 +170,9 @@ public abstract class Neuron<A extends Activation> extends FieldObject implement
             return activations.values()
                     .stream()
                     .map(Reference::get)
-                    .filter(Objects::nonNull);
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList())
+                    .stream();
         }
     }
 
@@ -187,11 +216,7 @@ public abstract class Neuron<A extends Activation> extends FieldObject implement
         if(t == null)
             return Collections.emptySortedSet();
 
-        WeakReference<PreActivation<A>> weakRef = activations.get(t.getId());
-        if(weakRef == null)
-            return Collections.emptyNavigableSet();
-
-        PreActivation<A> acts = weakRef.get();
+        PreActivation<A> acts = getPreActivation(t);
         if(acts == null)
             return Collections.emptyNavigableSet();
 
@@ -199,12 +224,7 @@ public abstract class Neuron<A extends Activation> extends FieldObject implement
     }
 
     public <N extends Neuron<A>> N  instantiateTemplate() {
-        N n;
-        try {
-            n = (N) getClass().getConstructor().newInstance();
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
+        N n = getModel().getTypeRegistry().newInstance((Class<N>) getClass());
 
         n.initFromTemplate(this);
         return n;
@@ -249,7 +269,7 @@ public abstract class Neuron<A extends Activation> extends FieldObject implement
     }
 
     protected SumField initBias() {
-        return (SumField) new QueueSumField(this, TRAINING, "bias", TOLERANCE)
+        return (SumField) new BatchedSumField(this, TRAINING, "bias", TOLERANCE, true)
                 .addListener("onBiasModified", () ->
                         setModified()
                 );
@@ -282,6 +302,7 @@ public abstract class Neuron<A extends Activation> extends FieldObject implement
     }
 
     public Collection<Synapse> getInputSynapses() {
+        provider.loadInputSynapsePages();
         return provider.inputSynapses.values();
     }
 
@@ -290,15 +311,63 @@ public abstract class Neuron<A extends Activation> extends FieldObject implement
     }
 
     public Collection<? extends Synapse> getOutputSynapses() {
+        provider.loadOutputSynapsePages();
         return provider.outputSynapses.values();
     }
 
-    public Stream<? extends Synapse> getOutputSynapsesAsStream(Thought t) {
-        WeakReference<PreActivation<A>> wRefNpd = activations.get(t.getId());
-        if(wRefNpd == null)
-            return getOutputSynapsesAsStream();
+    boolean hasPendingInputSynapsePages() {
+        return !inputSynapsePages.isEmpty();
+    }
+
+    boolean hasPendingOutputSynapsePages() {
+        return !outputSynapsePages.isEmpty();
+    }
+
+    void loadSynapsePage(boolean inputSide, SynapsePage page) {
+        if(inputSide)
+            loadInputSynapsePages(p -> p == page);
+        else
+            loadOutputSynapsePages(p -> p == page);
+    }
+
+    void loadInputSynapsePages(Predicate<SynapsePage> predicate) {
+        loadSynapsePages(inputSynapsePages, predicate, 0)
+                .forEach(Synapse::linkFields);
+    }
+
+    void loadInputSynapsePages(long peerId) {
+        loadSynapsePages(inputSynapsePages, null, peerId)
+                .forEach(Synapse::linkFields);
+    }
+
+    void loadOutputSynapsePages(Predicate<SynapsePage> predicate) {
+        loadSynapsePages(outputSynapsePages, predicate, 0);
+    }
+
+    void loadOutputSynapsePages(long peerId) {
+        loadSynapsePages(outputSynapsePages, null, peerId);
+    }
 
-        PreActivation<A> npd = wRefNpd.get();
+    private List<Synapse> loadSynapsePages(SynapsePages pages, Predicate<SynapsePage> predicate, long peerId) {
+        if(pages.isEmpty())
+            return Collections.emptyList();
+
+        // Loading a page restores the state of the stored record, the neuron is not modified by it.
+        loadingSynapsePages = true;
+        try {
+            return pages.load(getModel(), predicate, peerId);
+        } finally {
+            loadingSynapsePages = false;
+        }
+    }
+
+    public int getNumberOfPendingSynapsePages() {
+        return inputSynapsePages.getNumberOfPendingPages() +
+                outputSynapsePages.getNumberOfPendingPages();
+    }
+
+    public Stream<? extends Synapse> getOutputSynapsesAsStream(Thought t) {
+        PreActivation<A> npd = getPreActivation(t);
         if(npd == null)
             return getOutputSynapsesAsStream();
 
@@ -308,67 +377,89 @@ public abstract class Neuron<A extends Activation> extends FieldObject implement
         );
     }
 
+    /**
+     * Returns the output synapses ordered by their propagate upper bound. The index is rebuilt
+     * whenever the output synapses or their propagate upper bounds have changed. Pending pages are only
+     * loaded if they contain a synapse whose output neuron is active or that may be able to propagate.
+     */
+    public OutputSynapseIndex getOutputSynapseIndex() {
+        provider.loadOutputSynapsePagesForLinking();
+
+        OutputSynapseIndex idx = outputSynapseIndex;
+        if(idx == null) {
+            provider.lock.acquireReadLock();
+            idx = new OutputSynapseIndex(provider.outputSynapses.values());
+            provider.lock.releaseReadLock();
+            outputSynapseIndex = idx;
+        }
+        return idx;
+    }
+
+    public void invalidateOutputSynapseIndex() {
+        outputSynapseIndex = null;
+    }
+
+    /**
+     * The propagate upper bounds of the input synapses depend on the bias of this neuron.
+     */
+    protected void invalidateInputNeuronIndexes() {
+        if(provider == null)
+            return;
+
+        provider.inputSynapses.forEach(Synapse::invalidateInputNeuronIndex);
+    }
+
     public Synapse getOutputSynapse(NeuronProvider n) {
+        provider.loadOutputSynapsePages(n.getId());
         provider.lock.acquireReadLock();
-        Synapse syn = getOutputSynapsesAsStream()
-                .filter(s -> s.getPOutput().getId() == n.getId())
-                .findFirst()
-                .orElse(null);
+        Synapse syn = provider.getOutputSynapse(n.getId());
         provider.lock.releaseReadLock();
         return syn;
     }
 
     public Synapse getInputSynapse(NeuronProvider n) {
+        provider.loadInputSynapsePages(n.getId());
         provider.lock.acquireReadLock();
-        Synapse syn = selectInputSynapse(s ->
-                s.getPInput().getId() == n.getId()
-        );
-
+        Synapse syn = provider.getInputSynapse(n.getId());
         provider.lock.releaseReadLock();
         return syn;
     }
 
     public <IS extends Synapse> IS getInputSynapseByType(Class<IS> synapseType) {
-        return getInputSynapsesByType(synapseType)
-                .findAny()
-                .orElse(null);
+        Synapse[] syns = getProvider().getInputSynapsesByType(synapseType);
+        return syns.length > 0 ?
+                synapseType.cast(syns[0]) :
+                null;
     }
 
     public <IS extends Synapse> Stream<IS> getInputSynapsesByType(Class<IS> synapseType) {
-        return getProvider().getInputSynapses()
-                .filter(synapseType::isInstance)
+        return Arrays.stream(getProvider().getInputSynapsesByType(synapseType))
                 .map(synapseType::cast);
     }
 
     public <OS extends Synapse> OS getOutputSynapseByType(Class<OS> synapseType) {
-        return getProvider().getOutputSynapses()
-                .filter(synapseType::isInstance)
-                .map(synapseType::cast)
-                .findAny()
-                .orElse(null);
-    }
-
-    protected Synapse selectInputSynapse(Predicate<? super Synapse> predicate) {
-        return getInputSynapsesAsStream()
-                .filter(predicate)
-                .findFirst()
-                .orElse(null);
+        Synapse[] syns = getProvider().getOutputSynapsesByType(synapseType);
+        return syns.length > 0 ?
+                synapseType.cast(syns[0]) :
+                null;
     }
 
     public void addInputSynapse(Synapse s) {
-        setModified();
+        setSynapseModified(s);
     }
 
     public void removeInputSynapse(Synapse s) {
-        setModified();
+        setSynapseRemoved(s);
     }
 
     public void addOutputSynapse(Synapse s) {
-        setModified();
+        outputSynapseIndex = null;
+        setSynapseModified(s);
     }
 
     public void removeOutputSynapse(Synapse s) {
-        setModified();
+        outputSynapseIndex = null;
+        setSynapseRemoved(s);
     }
 
     public Writable getCustomData() {
@@ -388,21 +479,83 @@ public abstract class Neuron<A extends Activation> extends FieldObject implement
     }
 
 
-    public void setModified() {
-        if (!modified)
+    public synchronized void setModified() {
+        headerModified = true;
+        markModified();
+    }
+
+    /**
+     * Marks a synapse stored at this neuron as modified. Synapses stored at the peer neuron are ignored.
+     */
+    public synchronized void setSynapseModified(Synapse s) {
+        if(loadingSynapsePages || !isStoredHere(s))
+            return;
+
+        if(modifiedSynapses.isEmpty())
+            modifiedSynapses = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        modifiedSynapses.add(s);
+        removedSynapses.remove(s);
+        markModified();
+    }
+
+    /**
+     * Marks a synapse as no longer being stored at this neuron, either because it has been removed or
+     * because it is now stored at its peer neuron.
+     */
+    public synchronized void setSynapseRemoved(Synapse s) {
+        if(!isStoredHere(s))
+            return;
+
+        if(removedSynapses.isEmpty())
+            removedSynapses = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        removedSynapses.add(s);
+        modifiedSynapses.remove(s);
+        markModified();
+    }
+
+    private boolean isStoredHere(Synapse s) {
+        NeuronProvider storedAt = s.getStoredAt() == OUTPUT ?
+                s.getPOutput() :
+                s.getPInput();
+
+        return storedAt.getId().equals(getId());
+    }
+
+    private void markModified() {
+        if (!modified && !isInferenceOnly())
             Save.add(this);
 
         modified = true;
     }
 
-    public void resetModified() {
+    /**
+     * During read-only serving no save steps are queued. A neuron modified nevertheless, for instance a
+     * newly created input neuron, remains marked as modified and is stored once it is suspended.
+     */
+    private boolean isInferenceOnly() {
+        Thought t = getThought();
+        return t != null &&
+                t.getConfig() != null &&
+                t.getConfig().isInferenceOnly();
+    }
+
+    public synchronized void resetModified() {
         this.modified = false;
+        headerModified = false;
+        modifiedSynapses = Collections.emptySet();
+        removedSynapses = Collections.emptySet();
     }
 
     public boolean isModified() {
         return modified;
     }
 
+    public boolean isHeaderModified() {
+        return headerModified;
+    }
+
     public SumField getBias() {
         return bias;
     }
@@ -412,30 +565,37 @@ public abstract class Neuron<A extends Activation> extends FieldObject implement
     }
 
     public void suspend() {
-        for (Synapse s : getInputSynapsesAsStream()
+        for (Synapse s : provider.inputSynapses.stream()
                 .filter(s -> s.getStoredAt() == OUTPUT)
                 .collect(Collectors.toList())
         ) {
             provider.removeInputSynapse(s);
             s.getPInput().removeOutputSynapse(s);
         }
-        for (Synapse s : getOutputSynapsesAsStream()
+        for (Synapse s : provider.outputSynapses.stream()
                 .filter(s -> s.getStoredAt() == INPUT)
                 .collect(Collectors.toList())
         ) {
             provider.removeOutputSynapse(s);
             s.getPOutput().removeInputSynapse(s);
         }
+
+        Model m = getModel();
+        inputSynapsePages.discard(m);
+        outputSynapsePages.discard(m);
     }
 
     public void reactivate(Model m) {
+        inputSynapsePages.register(m, this);
+        outputSynapsePages.register(m, this);
+
         m.incrementRetrievalCounter();
         retrievalCount = m.getCurrentRetrievalCount();
     }
 
     @Override
     public void write(DataOutput out) throws IOException {
-        out.writeUTF(getClass().getCanonicalName());
+        getModel().getTypeRegistry().writeType(out, getClass());
 
         out.writeBoolean(label != null);
         if(label != null)
@@ -443,22 +603,6 @@ public abstract class Neuron<A extends Activation> extends FieldObject implement
 
         bias.write(out);
 
-        for (Synapse s : getInputSynapses()) {
-            if (s.getStoredAt() == OUTPUT) {
-                out.writeBoolean(true);
-                s.write(out);
-            }
-        }
-        out.writeBoolean(false);
-
-        for (Synapse s : getOutputSynapses()) {
-            if (s.getStoredAt() == INPUT) {
-                out.writeBoolean(true);
-                s.write(out);
-            }
-        }
-        out.writeBoolean(false);
-
         out.writeBoolean(customData != null);
         if(customData != null)
             customData.write(out);
@@ -467,8 +611,7 @@ public abstract class Neuron<A extends Activation> extends FieldObject implement
     }
 
     public static Neuron read(DataInput in, Model m) throws Exception {
-        String neuronClazz = in.readUTF();
-        Neuron n = (Neuron) m.modelClass(neuronClazz);
+        Neuron n = m.getTypeRegistry().readInstance(in);
 
         n.readFields(in, m);
         return n;
@@ -481,22 +624,99 @@ public abstract class Neuron<A extends Activation> extends FieldObject implement
 
         bias.readFields(in, m);
 
-        while (in.readBoolean()) {
-            Synapse syn = Synapse.read(in, m);
-            syn.link();
+        if(in.readBoolean()) {
+            customData = m.getCustomDataInstanceSupplier().get();
+            customData.readFields(in, m);
         }
 
-        while (in.readBoolean()) {
+        callActivationCheckCallback = in.readBoolean();
+    }
+
+    /**
+     * Writes the synapses stored at this neuron. Pending pages that may contain outdated versions of
+     * overridden synapses are loaded first, all other pending pages are written back unchanged.
+     */
+    public void writeSynapses(DataOutput out) throws IOException {
+        loadInputSynapsePages(inputSynapsePages::isStale);
+        loadOutputSynapsePages(outputSynapsePages::isStale);
+
+        inputSynapsePages.write(
+                out,
+                provider.inputSynapses.stream()
+                        .filter(s -> s.getStoredAt() == OUTPUT)
+        );
+
+        outputSynapsePages.write(
+                out,
+                provider.outputSynapses.stream()
+                        .filter(s -> s.getStoredAt() == INPUT)
+        );
+    }
+
+    public void readSynapses(DataInput in) throws IOException {
+        inputSynapsePages.readFields(in);
+        outputSynapsePages.readFields(in);
+    }
+
+    /**
+     * Writes the synapses modified or removed since the last save.
+     */
+    public synchronized void writeSynapseDelta(DataOutput out) throws IOException {
+        List<Synapse> syns = modifiedSynapses.stream()
+                .filter(this::isStoredHere)
+                .collect(Collectors.toList());
+
+        out.writeInt(syns.size());
+        for(Synapse s: syns)
+            s.write(out);
+
+        out.writeInt(removedSynapses.size());
+        for(Synapse s: removedSynapses) {
+            boolean inputSide = s.getPOutput().getId().equals(getId());
+            out.writeBoolean(inputSide);
+            out.writeLong(inputSide ?
+                    inputSynapsePages.getPeerId(s) :
+                    outputSynapsePages.getPeerId(s)
+            );
+        }
+    }
+
+    /**
+     * Applies a delta record on top of the stored synapses. The outdated versions in the pending pages are
+     * overridden.
+     */
+    public void readSynapseDelta(DataInput in, Model m) throws IOException {
+        int numSyns = in.readInt();
+        for(int i = 0; i < numSyns; i++) {
             Synapse syn = Synapse.read(in, m);
+            if(syn.getPOutput().getId().equals(getId()))
+                inputSynapsePages.override(inputSynapsePages.getPeerId(syn));
+            else
+                outputSynapsePages.override(outputSynapsePages.getPeerId(syn));
+
             syn.link();
         }
 
-        if(in.readBoolean()) {
-            customData = m.getCustomDataInstanceSupplier().get();
-            customData.readFields(in, m);
+        int numRemoved = in.readInt();
+        for(int i = 0; i < numRemoved; i++) {
+            boolean inputSide = in.readBoolean();
+            long peerId = in.readLong();
+            if(inputSide) {
+                inputSynapsePages.override(peerId);
+                Synapse s = provider.inputSynapses.get(peerId);
+                if(s != null && isStoredHere(s)) {
+                    provider.removeInputSynapse(s);
+                    s.getPInput().removeOutputSynapse(s);
+                }
+            } else {
+                outputSynapsePages.override(peerId);
+                Synapse s = provider.outputSynapses.get(peerId);
+                if(s != null && isStoredHere(s)) {
+                    provider.removeOutputSynapse(s);
+                    s.getPOutput().removeInputSynapse(s);
+                }
+            }
         }
-
-        callActivationCheckCallback = in.readBoolean();
     }
 
     @Override
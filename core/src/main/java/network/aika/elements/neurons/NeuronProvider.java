@@ -17,11 +17,12 @@
 package network.aika.elements.neurons;
 
 import network.aika.Model;
+import network.aika.callbacks.SuspensionCallback;
 import network.aika.elements.synapses.Synapse;
 import network.aika.utils.ReadWriteLock;
 
 import java.io.*;
-import java.util.HashMap;
+import java.util.List;
 import java.util.stream.Stream;
 
 /**
@@ -40,14 +41,46 @@ public class NeuronProvider implements Comparable<NeuronProvider> {
 
     private volatile Neuron neuron;
 
-    HashMap<Long, Synapse> inputSynapses = new HashMap<>();
-    HashMap<Long, Synapse> outputSynapses = new HashMap<>();
+    /**
+     * The bias and the complete bias of the neuron at the time it was suspended, unknown if it has not been
+     * active since this provider was created.
+     */
+    private volatile double suspendedBias = Double.NaN;
+    private volatile double suspendedCompleteBias = Double.NaN;
+
+    /**
+     * The sum of the positive feedback dummy weights, which binding neurons add to the propagate pre-net of
+     * their input synapses, at the time the neuron was suspended.
+     */
+    private volatile double suspendedPreNetUBDummyWeightSum;
+
+    /**
+     * Input synapses keyed by the id of their input neuron, output synapses keyed by the id of their
+     * output neuron.
+     */
+    final SynapseMap inputSynapses = new SynapseMap();
+    final SynapseMap outputSynapses = new SynapseMap();
+
+    private final SynapseTypeIndex inputSynapsesByType = new SynapseTypeIndex();
+    private final SynapseTypeIndex outputSynapsesByType = new SynapseTypeIndex();
 
     protected final ReadWriteLock lock = new ReadWriteLock();
 
     private boolean permanent;
     private boolean isRegistered;
 
+    /**
+     * Once a full record of the neuron has been stored, further saves only append delta records containing
+     * the header, if it has been modified, and the modified and removed synapses. The delta records are
+     * folded into a new full record as soon as their accumulated size exceeds the size of the full record
+     * or their number reaches {@link #MAX_DELTA_RECORDS}.
+     */
+    public static final int MAX_DELTA_RECORDS = 64;
+
+    private int recordSize = -1;
+    private int deltaSize;
+    private int numDeltas;
+
     public NeuronProvider(long id) {
         this.id = id;
     }
@@ -97,12 +130,148 @@ public class NeuronProvider implements Comparable<NeuronProvider> {
         return neuron;
     }
 
+    /**
+     * The synapse lookups below load the pending synapse pages that may contain the requested synapses.
+     * These are the pages of this neuron, if it is active, and the pages of other active neurons listing
+     * this neuron as peer. The synapses stored at a suspended neuron are not visible.
+     */
     public Stream<Synapse> getInputSynapses() {
-        return inputSynapses.values().stream();
+        loadInputSynapsePages();
+        return inputSynapses.stream();
     }
 
     public Stream<Synapse> getOutputSynapses() {
-        return outputSynapses.values().stream();
+        loadOutputSynapsePages();
+        return outputSynapses.stream();
+    }
+
+    public Synapse getInputSynapse(long inputId) {
+        loadInputSynapsePages(inputId);
+        return inputSynapses.get(inputId);
+    }
+
+    public Synapse getOutputSynapse(long outputId) {
+        loadOutputSynapsePages(outputId);
+        return outputSynapses.get(outputId);
+    }
+
+    public Synapse[] getInputSynapsesByType(Class<?> synapseType) {
+        Neuron<?> n = neuron;
+        if(n != null && n.hasPendingInputSynapsePages())
+            n.loadInputSynapsePages(p -> p.mayContain(synapseType));
+        loadPeerSynapsePages(false, ANY_OWNER, synapseType);
+
+        return inputSynapsesByType.get(synapseType, inputSynapses);
+    }
+
+    public Synapse[] getOutputSynapsesByType(Class<?> synapseType) {
+        Neuron<?> n = neuron;
+        if(n != null && n.hasPendingOutputSynapsePages())
+            n.loadOutputSynapsePages(p -> p.mayContain(synapseType));
+        loadPeerSynapsePages(true, ANY_OWNER, synapseType);
+
+        return outputSynapsesByType.get(synapseType, outputSynapses);
+    }
+
+    void loadInputSynapsePages() {
+        Neuron<?> n = neuron;
+        if(n != null && n.hasPendingInputSynapsePages())
+            n.loadInputSynapsePages(p -> true);
+        loadPeerSynapsePages(false, ANY_OWNER, null);
+    }
+
+    void loadOutputSynapsePages() {
+        Neuron<?> n = neuron;
+        if(n != null && n.hasPendingOutputSynapsePages())
+            n.loadOutputSynapsePages(p -> true);
+        loadPeerSynapsePages(true, ANY_OWNER, null);
+    }
+
+    void loadInputSynapsePages(long inputId) {
+        Neuron<?> n = neuron;
+        if(n != null && n.hasPendingInputSynapsePages())
+            n.loadInputSynapsePages(inputId);
+        loadPeerSynapsePages(false, inputId, null);
+    }
+
+    void loadOutputSynapsePages(long outputId) {
+        Neuron<?> n = neuron;
+        if(n != null && n.hasPendingOutputSynapsePages())
+            n.loadOutputSynapsePages(outputId);
+        loadPeerSynapsePages(true, outputId, null);
+    }
+
+    /**
+     * Loads the pending pages required for the linking of an activation of this neuron. The pages of other
+     * neurons are always loaded, since these neurons are active. A page of this neuron is only loaded if
+     * one of its synapses leads to an active output neuron, or to a suspended output neuron whose propagate
+     * pre-net, including the feedback dummy weights of a binding neuron, may be positive. The synapses of
+     * the remaining pages can neither link nor propagate, their suspended output neurons are not
+     * reactivated for the latent linking.
+     */
+    void loadOutputSynapsePagesForLinking() {
+        Neuron<?> n = neuron;
+        if(n != null && n.hasPendingOutputSynapsePages())
+            n.loadOutputSynapsePages(this::isRequiredForLinking);
+        loadPeerSynapsePages(true, ANY_OWNER, null);
+    }
+
+    private boolean isRequiredForLinking(SynapsePage p) {
+        long[] peerIds = p.getPeerIds();
+        for(int i = 0; i < peerIds.length; i++) {
+            NeuronProvider op = model.getRegisteredNeuronProvider(peerIds[i]);
+            if(op == null || !op.isSuspended())
+                return true;
+
+            double offset = p.getPropagateOffset(i);
+            if(offset == Double.NEGATIVE_INFINITY)
+                continue;
+
+            if(op.getSuspendedPropagateUpperBound(offset, p.isPropagatingOnCompleteBias()) > 0.0)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * An upper bound of the propagate pre-net of an input synapse of this suspended neuron, based on the
+     * bias at the time of the suspension. Positive infinity if that bias is unknown.
+     */
+    public double getSuspendedPropagateUpperBound(double propagateOffset, boolean onCompleteBias) {
+        double bias = onCompleteBias ?
+                suspendedCompleteBias :
+                suspendedBias;
+
+        if(Double.isNaN(bias))
+            return Double.POSITIVE_INFINITY;
+
+        // Not every synapse into a binding neuron adds the dummy weights, a positive sum is an upper bound.
+        return bias + Math.max(0.0, suspendedPreNetUBDummyWeightSum) + propagateOffset;
+    }
+
+    /**
+     * Neuron ids are positive, so that no owner has this id.
+     */
+    private static final long ANY_OWNER = -1;
+
+    /**
+     * Loads the pending pages of other neurons containing synapses of this neuron. The pages of the input
+     * synapses of the other neurons contain output synapses of this neuron and vice versa.
+     */
+    private void loadPeerSynapsePages(boolean ownerInputSide, long ownerId, Class<?> synapseType) {
+        PendingSynapsePageIndex idx = model.getPendingSynapsePageIndex();
+        if(idx.isEmpty())
+            return;
+
+        for(PendingSynapsePageIndex.Entry e: idx.get(id, ownerInputSide)) {
+            if(ownerId != ANY_OWNER && ownerId != e.owner.getId())
+                continue;
+
+            if(synapseType != null && !e.page.mayContain(synapseType))
+                continue;
+
+            e.load();
+        }
     }
 
     public boolean isPermanent() {
@@ -128,9 +297,16 @@ public class NeuronProvider implements Comparable<NeuronProvider> {
             return;
         }
 
+        model.getMiniBatch().flush(neuron);
+
         if(sm == SuspensionMode.SAVE)
             save();
 
+        suspendedBias = neuron.getBias().getCurrentValue();
+        suspendedCompleteBias = neuron.getCurrentCompleteBias();
+        suspendedPreNetUBDummyWeightSum = neuron instanceof BindingNeuron ?
+                ((BindingNeuron) neuron).getPreNetUBDummyWeightSum() :
+                0.0;
         neuron.suspend();
         neuron = null;
 
@@ -141,41 +317,120 @@ public class NeuronProvider implements Comparable<NeuronProvider> {
         if(!neuron.isModified())
             return;
 
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        try (DataOutputStream dos = new DataOutputStream(baos)) {
-            neuron.write(dos);
-
-            model.getSuspensionCallback().store(
-                    id,
-                    neuron.getLabel(),
-                    neuron.getCustomData(),
-                    baos.toByteArray()
-            );
+        SuspensionCallback sc = model.getSuspensionCallback();
+        try {
+            if(isDeltaSaveApplicable(sc)) {
+                byte[] delta = writeDelta();
+                sc.storeDelta(id, neuron.getLabel(), neuron.getCustomData(), delta);
+
+                deltaSize += delta.length;
+                numDeltas++;
+            } else {
+                byte[] record = writeRecord();
+                sc.store(id, neuron.getLabel(), neuron.getCustomData(), record);
+
+                recordSize = record.length;
+                deltaSize = 0;
+                numDeltas = 0;
+            }
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
         neuron.resetModified();
     }
 
+    private boolean isDeltaSaveApplicable(SuspensionCallback sc) {
+        return sc.isDeltaStorageSupported() &&
+                recordSize >= 0 &&
+                deltaSize < recordSize &&
+                numDeltas < MAX_DELTA_RECORDS;
+    }
+
+    private byte[] writeRecord() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (DataOutputStream dos = new DataOutputStream(baos)) {
+            writeHeader(dos);
+            neuron.writeSynapses(dos);
+        }
+        return baos.toByteArray();
+    }
+
+    private byte[] writeDelta() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (DataOutputStream dos = new DataOutputStream(baos)) {
+            dos.writeBoolean(neuron.isHeaderModified());
+            if(neuron.isHeaderModified())
+                writeHeader(dos);
+
+            neuron.writeSynapseDelta(dos);
+        }
+        return baos.toByteArray();
+    }
+
+    /**
+     * The header is prefixed by its length, so that it can be skipped if a delta record contains a newer one.
+     */
+    private void writeHeader(DataOutput out) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (DataOutputStream dos = new DataOutputStream(baos)) {
+            neuron.write(dos);
+        }
+        out.writeInt(baos.size());
+        out.write(baos.toByteArray());
+    }
+
     private void reactivate() {
         assert model.getSuspensionCallback() != null;
 
+        SuspensionCallback sc = model.getSuspensionCallback();
         Neuron n;
-        try (DataInputStream dis = new DataInputStream(
-                new ByteArrayInputStream(
-                        model.getSuspensionCallback().retrieve(id)
-                )
-        )) {
-            n = Neuron.read(dis, model);
+        try {
+            byte[] record = sc.retrieve(id);
+            List<byte[]> deltas = sc.retrieveDeltas(id);
+
+            byte[] header = null;
+            for(byte[] delta: deltas) {
+                DataInputStream dis = new DataInputStream(new ByteArrayInputStream(delta));
+                if(dis.readBoolean())
+                    header = readHeader(dis);
+            }
+
+            DataInputStream dis = new DataInputStream(new ByteArrayInputStream(record));
+            byte[] baseHeader = readHeader(dis);
+            n = Neuron.read(
+                    new DataInputStream(new ByteArrayInputStream(header != null ? header : baseHeader)),
+                    model
+            );
+            n.readSynapses(dis);
+            n.setProvider(this);
+
+            for(byte[] delta: deltas) {
+                dis = new DataInputStream(new ByteArrayInputStream(delta));
+                if(dis.readBoolean())
+                    dis.skipBytes(dis.readInt());
+
+                n.readSynapseDelta(dis, model);
+            }
+
+            recordSize = record.length;
+            deltaSize = deltas.stream()
+                    .mapToInt(d -> d.length)
+                    .sum();
+            numDeltas = deltas.size();
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
-        n.setProvider(this);
         n.reactivate(model);
         neuron = n;
         checkRegister();
     }
 
+    private static byte[] readHeader(DataInput in) throws IOException {
+        byte[] header = new byte[in.readInt()];
+        in.readFully(header);
+        return header;
+    }
+
     public void linkInput(Synapse s) {
         lock.acquireWriteLock();
         addOutputSynapse(s);
@@ -196,13 +451,17 @@ public class NeuronProvider implements Comparable<NeuronProvider> {
 
     public void unlinkOutput(Synapse s) {
         lock.acquireWriteLock();
-        removeOutputSynapse(s);
+        removeInputSynapse(s);
         lock.releaseWriteLock();
     }
 
     public void addInputSynapse(Synapse s) {
         lock.acquireWriteLock();
-        inputSynapses.put(s.getPInput().getId(), s);
+        Synapse es = inputSynapses.put(s.getPInput().getId(), s);
+        if(es != null)
+            inputSynapsesByType.remove(es);
+        inputSynapsesByType.add(s);
+
         if(neuron != null)
             neuron.addInputSynapse(s);
 
@@ -212,7 +471,10 @@ public class NeuronProvider implements Comparable<NeuronProvider> {
 
     public void removeInputSynapse(Synapse s) {
         lock.acquireWriteLock();
-        inputSynapses.remove(s.getPInput().getId());
+        Synapse es = inputSynapses.remove(s.getPInput().getId());
+        if(es != null)
+            inputSynapsesByType.remove(es);
+
         if(neuron != null)
             neuron.removeInputSynapse(s);
 
@@ -222,7 +484,11 @@ public class NeuronProvider implements Comparable<NeuronProvider> {
 
     public void addOutputSynapse(Synapse s) {
         lock.acquireWriteLock();
-        outputSynapses.put(s.getPOutput().getId(), s);
+        Synapse es = outputSynapses.put(s.getPOutput().getId(), s);
+        if(es != null)
+            outputSynapsesByType.remove(es);
+        outputSynapsesByType.add(s);
+
         if(neuron != null)
             neuron.addOutputSynapse(s);
 
@@ -232,7 +498,10 @@ public class NeuronProvider implements Comparable<NeuronProvider> {
 
     public void removeOutputSynapse(Synapse s) {
         lock.acquireWriteLock();
-        outputSynapses.remove(s.getPOutput().getId());
+        Synapse es = outputSynapses.remove(s.getPOutput().getId());
+        if(es != null)
+            outputSynapsesByType.remove(es);
+
         if(neuron != null)
             neuron.removeOutputSynapse(s);
 
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.elements.neurons;
+
+import network.aika.elements.synapses.Synapse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Snapshot of the output synapses of a neuron, ordered by their propagate upper bound. The upper bound
+ * is the propagate pre-net of a synapse without the activation check callback. For a suspended output
+ * neuron it is derived from the bias cached at its suspension, so building the index does not reactivate
+ * any output neuron. Synapses that never
+ * propagate are kept in a separate linking-only list. The index is invalidated by the synapses and the
+ * output neurons whenever a weight, a bias or a sum of lower weights changes.
+ *
+ * @author Lukas Molzberger
+ */
+public class OutputSynapseIndex {
+
+    private final Synapse[] propagating;
+    private final double[] propagateUpperBounds;
+
+    private final Synapse[] linkingOnly;
+
+    public OutputSynapseIndex(Collection<? extends Synapse> outputSynapses) {
+        List<Synapse> prop = new ArrayList<>();
+        List<Synapse> linking = new ArrayList<>();
+        for(Synapse s: outputSynapses) {
+            if(s.isPropagating())
+                prop.add(s);
+            else
+                linking.add(s);
+        }
+
+        int n = prop.size();
+        Synapse[] syns = prop.toArray(new Synapse[n]);
+        double[] bounds = new double[n];
+        Integer[] order = new Integer[n];
+        for(int i = 0; i < n; i++) {
+            bounds[i] = syns[i].getPropagateUpperBound();
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingDouble(i -> -bounds[i]));
+
+        propagating = new Synapse[n];
+        propagateUpperBounds = new double[n];
+        for(int i = 0; i < n; i++) {
+            propagating[i] = syns[order[i]];
+            propagateUpperBounds[i] = bounds[order[i]];
+        }
+
+        linkingOnly = linking.toArray(new Synapse[0]);
+    }
+
+    public int size() {
+        return propagating.length;
+    }
+
+    public Synapse getPropagating(int i) {
+        return propagating[i];
+    }
+
+    public double getPropagateUpperBound(int i) {
+        return propagateUpperBounds[i];
+    }
+
+    public Synapse[] getLinkingOnly() {
+        return linkingOnly;
+    }
+}
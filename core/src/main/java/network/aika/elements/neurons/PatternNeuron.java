@@ -77,54 +77,50 @@ public class PatternNeuron extends ConjunctiveNeuron<PatternActivation> {
     protected void updateSumOfLowerWeights() {
     }
 
+    @Override
+    protected void updateSumOfLowerWeights(ConjunctiveSynapse s) {
+    }
+
     public SampleSpace getSampleSpace() {
         return sampleSpace;
     }
 
     @Override
     public void count(PatternActivation act) {
-        double oldN = sampleSpace.getN();
+        count(act.getAbsoluteRange(), act.getConfig().getAlpha());
+    }
+
+    public synchronized void count(Range absoluteRange, Double alpha) {
+        frequency *= sampleSpace.decay(getModel(), alpha);
 
-        Range absoluteRange = act.getAbsoluteRange();
         sampleSpace.countSkippedInstances(absoluteRange);
 
         sampleSpace.count();
         frequency += 1.0;
 
-        Double alpha = act.getConfig().getAlpha();
-        if (alpha != null)
-            applyMovingAverage(
-                    Math.pow(alpha, sampleSpace.getN() - oldN)
-            );
-
         sampleSpace.updateLastPosition(absoluteRange);
         setModified();
     }
 
-    public void applyMovingAverage(double alpha) {
-        sampleSpace.applyMovingAverage(alpha);
-        frequency *= alpha;
-        setModified();
-    }
-
-
     public double getFrequency() {
-        return frequency;
+        return frequency * sampleSpace.getDecay(getModel());
     }
 
     public double getFrequency(Sign s, double n) {
+        double f = getFrequency();
         return s == POS ?
-                frequency :
-                n - frequency;
+                f :
+                n - f;
     }
 
     public void setFrequency(double f) {
+        sampleSpace.decay(getModel(), sampleSpace.getAlpha());
         frequency = f;
         setModified();
     }
 
     public double getSurprisal(Sign s, Range range, boolean addCurrentInstance) {
-        double n = sampleSpace.getN(range);
+        double n = sampleSpace.getN(range, getModel());
         double p = getProbability(s, n, addCurrentInstance);
         return Utils.surprisal(p);
     }
@@ -137,7 +133,7 @@ public class PatternNeuron extends ConjunctiveNeuron<PatternActivation> {
             n += 1.0;
         }
 
-        return Bound.UPPER.probability(f, n);
+        return Bound.UPPER.probability(f, n, getBetaQuantile());
     }
 
     @Override
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.elements.neurons;
+
+import java.util.*;
+
+/**
+ * Index of the pending synapse pages of all active neurons of a model, keyed by the ids of the peer
+ * neurons listed in the page headers. A synapse stored at one of its neurons is only linked into the
+ * other one after the page containing it has been loaded. The lookups of the peer neuron therefore use
+ * this index to load the pages of other neurons that may contain its synapses.
+ *
+ * @author Lukas Molzberger
+ */
+public class PendingSynapsePageIndex {
+
+    public static class Entry {
+        final Neuron<?> owner;
+        final boolean inputSide;
+        final SynapsePage page;
+
+        Entry(Neuron<?> owner, boolean inputSide, SynapsePage page) {
+            this.owner = owner;
+            this.inputSide = inputSide;
+            this.page = page;
+        }
+
+        void load() {
+            owner.loadSynapsePage(inputSide, page);
+        }
+    }
+
+    private final boolean enabled;
+
+    private final Map<Long, List<Entry>> entries = new HashMap<>();
+
+    private volatile int size;
+
+    public PendingSynapsePageIndex(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public synchronized void add(Neuron<?> owner, boolean inputSide, SynapsePage page) {
+        if(!enabled)
+            return;
+
+        Entry e = new Entry(owner, inputSide, page);
+        for(long peerId: page.getPeerIds()) {
+            entries.computeIfAbsent(peerId, id -> new ArrayList<>(1))
+                    .add(e);
+            size++;
+        }
+    }
+
+    public synchronized void remove(SynapsePage page) {
+        if(!enabled)
+            return;
+
+        for(long peerId: page.getPeerIds()) {
+            List<Entry> es = entries.get(peerId);
+            if(es == null)
+                continue;
+
+            int oldSize = es.size();
+            es.removeIf(e -> e.page == page);
+            size -= oldSize - es.size();
+
+            if(es.isEmpty())
+                entries.remove(peerId);
+        }
+    }
+
+    /**
+     * Returns the pending pages of other neurons containing a synapse of the given peer. The pages of the
+     * input synapses of the other neurons contain output synapses of the peer and vice versa.
+     */
+    synchronized List<Entry> get(long peerId, boolean ownerInputSide) {
+        List<Entry> es = entries.get(peerId);
+        if(es == null)
+            return Collections.emptyList();
+
+        List<Entry> result = new ArrayList<>(es.size());
+        for(Entry e: es) {
+            if(e.inputSide == ownerInputSide)
+                result.add(e);
+        }
+        return result;
+    }
+}
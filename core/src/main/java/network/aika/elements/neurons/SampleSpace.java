@@ -30,6 +30,11 @@ import java.io.IOException;
  * training instances a certain neuron or synapse has encountered. The Sample Space is used
  * to convert the counted frequencies to probabilities.
  *
+ * If a decay rate (alpha) is configured, N and the frequencies of the owning neuron or synapse are
+ * exponentially decayed against the model-wide N. The stored values are only valid at the decay
+ * reference, reads apply the decay accumulated since then lazily. The stored values are brought up to
+ * date only when the owner counts a new instance.
+ *
  * @author Lukas Molzberger
  */
 public class SampleSpace implements Writable {
@@ -39,19 +44,42 @@ public class SampleSpace implements Writable {
     private double N = 0;
     private Long lastPosition;
 
+    private Double alpha;
+    private long decayReference;
+
     public SampleSpace() {
     }
 
+    public SampleSpace(double N, Long lastPosition, Double alpha, long decayReference) {
+        this.N = N;
+        this.lastPosition = lastPosition;
+        this.alpha = alpha;
+        this.decayReference = decayReference;
+    }
+
     public double getN() {
         return N;
     }
 
+    public double getN(Model m) {
+        return N * getDecay(m);
+    }
+
     public double getN(Range range) {
         double n = range != null ? N + getInactiveInstancesSinceLastPos(range) : N;
         assert n >= 0.0;
         return n;
     }
 
+    public double getN(Range range, Model m) {
+        double n = getN(m);
+        if(range != null)
+            n += getInactiveInstancesSinceLastPos(range);
+
+        assert n >= 0.0;
+        return n;
+    }
+
     public void setN(int N) {
         this.N = N;
     }
@@ -64,8 +92,45 @@ public class SampleSpace implements Writable {
         this.lastPosition = lastPosition;
     }
 
-    public void applyMovingAverage(double alpha) {
-        N *= alpha;
+    public Double getAlpha() {
+        return alpha;
+    }
+
+    public long getDecayReference() {
+        return decayReference;
+    }
+
+    /**
+     * @return the factor by which the stored values have decayed since the decay reference.
+     */
+    public double getDecay(Model m) {
+        return getDecay(m, alpha != null ? alpha : Double.NaN, decayReference);
+    }
+
+    /**
+     * @param alpha the decay rate, NaN if no decay is configured
+     */
+    public static double getDecay(Model m, double alpha, long decayReference) {
+        if(Double.isNaN(alpha) || m == null)
+            return 1.0;
+
+        return Math.pow(alpha, m.getN() - decayReference);
+    }
+
+    /**
+     * Brings N up to date and moves the decay reference to the current model-wide N.
+     *
+     * @return the decay factor that the owner needs to apply to its own frequencies.
+     */
+    public double decay(Model m, Double alpha) {
+        double decay = getDecay(m);
+        N *= decay;
+
+        if(m != null)
+            decayReference = m.getN();
+        this.alpha = alpha;
+
+        return decay;
     }
 
     public void countSkippedInstances(Range range) {
@@ -84,6 +149,10 @@ public class SampleSpace implements Writable {
         if(absoluteRange == null || lastPosition == null)
             return 0;
 
+        return getInactiveInstances(lastPosition, absoluteRange);
+    }
+
+    public static long getInactiveInstances(long lastPosition, Range absoluteRange) {
         long x = (absoluteRange.getBegin() - lastPosition);
         if(x < 0) {
             log.warn("Inactive instances are not allowed to be negative: " + x);
@@ -99,6 +168,11 @@ public class SampleSpace implements Writable {
         out.writeBoolean(lastPosition != null);
         if(lastPosition != null)
             out.writeLong(lastPosition);
+
+        out.writeBoolean(alpha != null);
+        if(alpha != null)
+            out.writeDouble(alpha);
+        out.writeLong(decayReference);
     }
 
     public static SampleSpace read(DataInput in, Model m) throws IOException {
@@ -112,6 +186,10 @@ public class SampleSpace implements Writable {
         N = in.readDouble();
         if(in.readBoolean())
             lastPosition = in.readLong();
+
+        if(in.readBoolean())
+            alpha = in.readDouble();
+        decayReference = in.readLong();
     }
 
     public String toString(Range r) {
@@ -0,0 +1,257 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.elements.neurons;
+
+import network.aika.elements.synapses.Synapse;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Open addressing hash map from the id of the neuron on the other side of a synapse to the synapse.
+ * The keys are stored as primitive longs in a table with linear probing, so that neither lookups nor
+ * insertions need to box the key or allocate an entry object. Deletions shift the following entries
+ * back instead of leaving tombstones. Neurons without synapses share the same empty table.
+ *
+ * Modifications are exclusive, lookups are optimistic reads that are retried under the read lock if a
+ * modification interfered. The iteration runs over a snapshot of the synapses taken when the iteration
+ * starts, so that the map may be modified while it is iterated.
+ *
+ * @author Lukas Molzberger
+ */
+public class SynapseMap {
+
+    private static final Table EMPTY_TABLE = new Table(0);
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private static class Table {
+        final long[] keys;
+        final Synapse[] values;
+
+        Table(int capacity) {
+            keys = new long[capacity];
+            values = new Synapse[capacity];
+        }
+    }
+
+    private final StampedLock lock = new StampedLock();
+
+    private volatile Table table = EMPTY_TABLE;
+    private volatile int size;
+
+    private final Collection<Synapse> valuesView = new AbstractCollection<>() {
+        @Override
+        public Iterator<Synapse> iterator() {
+            return Arrays.asList(SynapseMap.this.toArray()).iterator();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    };
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public Synapse get(long key) {
+        if(size == 0)
+            return null;
+
+        long stamp = lock.tryOptimisticRead();
+        Synapse s = find(table, key);
+        if(lock.validate(stamp))
+            return s;
+
+        stamp = lock.readLock();
+        try {
+            return find(table, key);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private static Synapse find(Table t, long key) {
+        int mask = t.keys.length - 1;
+        int i = hash(key) & mask;
+        for(int n = 0; n < t.values.length; n++, i = (i + 1) & mask) {
+            Synapse s = t.values[i];
+            if(s == null)
+                return null;
+
+            if(t.keys[i] == key)
+                return s;
+        }
+        return null;
+    }
+
+    public Synapse put(long key, Synapse s) {
+        assert s != null;
+
+        long stamp = lock.writeLock();
+        try {
+            Table t = table;
+            if((size + 1) * 2 > t.keys.length)
+                t = resize(t, Math.max(INITIAL_CAPACITY, t.keys.length * 2));
+
+            int mask = t.keys.length - 1;
+            int i = hash(key) & mask;
+            for(; t.values[i] != null; i = (i + 1) & mask) {
+                if(t.keys[i] == key) {
+                    Synapse es = t.values[i];
+                    t.values[i] = s;
+                    return es;
+                }
+            }
+
+            t.keys[i] = key;
+            t.values[i] = s;
+            size++;
+            return null;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public Synapse remove(long key) {
+        if(size == 0)
+            return null;
+
+        long stamp = lock.writeLock();
+        try {
+            Table t = table;
+            int mask = t.keys.length - 1;
+            int i = hash(key) & mask;
+            for(; t.values[i] != null; i = (i + 1) & mask) {
+                if(t.keys[i] == key)
+                    break;
+            }
+
+            Synapse es = t.values[i];
+            if(es == null)
+                return null;
+
+            // Shift the following entries of the probe sequence back into the gap.
+            int gap = i;
+            for(int j = (gap + 1) & mask; t.values[j] != null; j = (j + 1) & mask) {
+                int home = hash(t.keys[j]) & mask;
+                if(((j - home) & mask) >= ((j - gap) & mask)) {
+                    t.keys[gap] = t.keys[j];
+                    t.values[gap] = t.values[j];
+                    gap = j;
+                }
+            }
+            t.values[gap] = null;
+            size--;
+
+            return es;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns a snapshot of the synapses of this map.
+     */
+    public Synapse[] toArray() {
+        if(size == 0)
+            return EMPTY_TABLE.values;
+
+        long stamp = lock.tryOptimisticRead();
+        Synapse[] syns = collect(table);
+        if(syns != null && lock.validate(stamp))
+            return syns;
+
+        stamp = lock.readLock();
+        try {
+            return collect(table);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private Synapse[] collect(Table t) {
+        Synapse[] syns = new Synapse[size];
+        int n = 0;
+        for(Synapse s: t.values) {
+            if(s == null)
+                continue;
+
+            // A concurrent modification changed the number of synapses.
+            if(n == syns.length)
+                return null;
+
+            syns[n++] = s;
+        }
+        return n == syns.length ?
+                syns :
+                Arrays.copyOf(syns, n);
+    }
+
+    public void forEach(Consumer<Synapse> action) {
+        for(Synapse s: toArray())
+            action.accept(s);
+    }
+
+    /**
+     * @return a collection view of the synapses. Like {@link #forEach} and {@link #stream}, each iteration
+     * of the view runs over a snapshot, it does not reflect modifications made while it is iterated.
+     */
+    public Collection<Synapse> values() {
+        return valuesView;
+    }
+
+    public Stream<Synapse> stream() {
+        return Arrays.stream(toArray());
+    }
+
+    private Table resize(Table old, int capacity) {
+        Table t = new Table(capacity);
+
+        int mask = capacity - 1;
+        for(int j = 0; j < old.values.length; j++) {
+            if(old.values[j] == null)
+                continue;
+
+            int i = hash(old.keys[j]) & mask;
+            while(t.values[i] != null)
+                i = (i + 1) & mask;
+
+            t.keys[i] = old.keys[j];
+            t.values[i] = old.values[j];
+        }
+
+        table = t;
+        return t;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.elements.neurons;
+
+import network.aika.Model;
+import network.aika.elements.synapses.Synapse;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * A page of serialized synapses of a single synapse type whose peer neuron ids lie within a given range.
+ * The synapses of a page are kept as raw bytes until the page is loaded. The header of a page lists the
+ * peer ids of its synapses together with their propagate offsets, which allows the linking to decide
+ * whether a page is required without deserializing it.
+ *
+ * @author Lukas Molzberger
+ */
+public class SynapsePage {
+
+    private final String typeName;
+    private final long minPeerId;
+    private final long maxPeerId;
+    private final int size;
+
+    private final long[] peerIds;
+    private final double[] propagateOffsets;
+    private final boolean propagatingOnCompleteBias;
+
+    private final byte[] data;
+
+    private Class<?> type;
+
+    private SynapsePage(String typeName, long minPeerId, long maxPeerId, int size, long[] peerIds, double[] propagateOffsets, boolean propagatingOnCompleteBias, byte[] data) {
+        this.typeName = typeName;
+        this.minPeerId = minPeerId;
+        this.maxPeerId = maxPeerId;
+        this.size = size;
+        this.peerIds = peerIds;
+        this.propagateOffsets = propagateOffsets;
+        this.propagatingOnCompleteBias = propagatingOnCompleteBias;
+        this.data = data;
+    }
+
+    public static SynapsePage create(List<Synapse> syns, ToLongFunction<Synapse> peerId) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (DataOutputStream dos = new DataOutputStream(baos)) {
+            for(Synapse s: syns)
+                s.write(dos);
+        }
+
+        long[] peerIds = new long[syns.size()];
+        double[] propagateOffsets = new double[syns.size()];
+        for(int i = 0; i < syns.size(); i++) {
+            Synapse s = syns.get(i);
+            peerIds[i] = peerId.applyAsLong(s);
+            propagateOffsets[i] = s.isPropagating() ?
+                    s.getPropagateOffset() :
+                    Double.NEGATIVE_INFINITY;
+        }
+
+        return new SynapsePage(
+                syns.get(0).getClass().getName(),
+                peerIds[0],
+                peerIds[peerIds.length - 1],
+                syns.size(),
+                peerIds,
+                propagateOffsets,
+                syns.get(0).isPropagatingOnCompleteBias(),
+                baos.toByteArray()
+        );
+    }
+
+    public boolean covers(long peerId) {
+        return minPeerId <= peerId && peerId <= maxPeerId;
+    }
+
+    public boolean contains(long peerId) {
+        return covers(peerId) &&
+                Arrays.binarySearch(peerIds, peerId) >= 0;
+    }
+
+    public long[] getPeerIds() {
+        return peerIds;
+    }
+
+    /**
+     * The part of the propagate pre-net of the i-th synapse that does not depend on the bias of its
+     * output neuron, or negative infinity if the synapse does not propagate.
+     */
+    public double getPropagateOffset(int i) {
+        return propagateOffsets[i];
+    }
+
+    public boolean isPropagatingOnCompleteBias() {
+        return propagatingOnCompleteBias;
+    }
+
+    public boolean mayContain(Class<?> synapseType) {
+        return synapseType.isAssignableFrom(getType());
+    }
+
+    private Class<?> getType() {
+        if(type == null) {
+            try {
+                type = getClass().getClassLoader().loadClass(typeName);
+            } catch (ClassNotFoundException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return type;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Deserializes the synapses of this page and links those accepted by the filter to their input and
+     * output neurons.
+     */
+    public List<Synapse> load(Model m, Predicate<Synapse> filter) {
+        List<Synapse> syns = new ArrayList<>(size);
+        try (DataInputStream dis = new DataInputStream(new ByteArrayInputStream(data))) {
+            for(int i = 0; i < size; i++) {
+                Synapse syn = Synapse.read(dis, m);
+                if(!filter.test(syn))
+                    continue;
+
+                syn.link();
+                syns.add(syn);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return syns;
+    }
+
+    public void write(DataOutput out) throws IOException {
+        out.writeUTF(typeName);
+        out.writeLong(minPeerId);
+        out.writeLong(maxPeerId);
+        out.writeInt(size);
+        out.writeBoolean(propagatingOnCompleteBias);
+        for(int i = 0; i < size; i++) {
+            out.writeLong(peerIds[i]);
+            out.writeDouble(propagateOffsets[i]);
+        }
+        out.writeInt(data.length);
+        out.write(data);
+    }
+
+    public static SynapsePage read(DataInput in) throws IOException {
+        String typeName = in.readUTF();
+        long minPeerId = in.readLong();
+        long maxPeerId = in.readLong();
+        int size = in.readInt();
+        boolean propagatingOnCompleteBias = in.readBoolean();
+        long[] peerIds = new long[size];
+        double[] propagateOffsets = new double[size];
+        for(int i = 0; i < size; i++) {
+            peerIds[i] = in.readLong();
+            propagateOffsets[i] = in.readDouble();
+        }
+        byte[] data = new byte[in.readInt()];
+        in.readFully(data);
+
+        return new SynapsePage(typeName, minPeerId, maxPeerId, size, peerIds, propagateOffsets, propagatingOnCompleteBias, data);
+    }
+
+    @Override
+    public String toString() {
+        return typeName + " [" + minPeerId + ", " + maxPeerId + "] size:" + size;
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.elements.neurons;
+
+import network.aika.Model;
+import network.aika.elements.synapses.Synapse;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The synapse pages of one side of a neuron record. Synapses are grouped by their type, sorted by the id
+ * of their peer neuron and split into pages of at most {@link #PAGE_SIZE} synapses. After a neuron has
+ * been reactivated its pages remain pending until a lookup requires them. Pending pages are written back
+ * unchanged when the neuron is saved. Peers whose synapse has been replaced or removed by a delta record
+ * are marked as overridden, their outdated versions in the pending pages are skipped. The pending pages of
+ * an active neuron are registered in the {@link PendingSynapsePageIndex} of the model.
+ *
+ * @author Lukas Molzberger
+ */
+public class SynapsePages {
+
+    public static final int PAGE_SIZE = 64;
+
+    private final boolean inputSide;
+    private final ToLongFunction<Synapse> peerId;
+
+    private volatile List<SynapsePage> pending = Collections.emptyList();
+
+    private Set<Long> overriddenPeers = Collections.emptySet();
+
+    public SynapsePages(boolean inputSide, ToLongFunction<Synapse> peerId) {
+        this.inputSide = inputSide;
+        this.peerId = peerId;
+    }
+
+    public long getPeerId(Synapse s) {
+        return peerId.applyAsLong(s);
+    }
+
+    public boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    public int getNumberOfPendingPages() {
+        return pending.size();
+    }
+
+    public synchronized void override(long peerId) {
+        if(overriddenPeers.isEmpty())
+            overriddenPeers = new HashSet<>();
+
+        overriddenPeers.add(peerId);
+    }
+
+    /**
+     * Whether one of the pending pages may still contain an outdated version of an overridden synapse.
+     */
+    public synchronized boolean isStale(SynapsePage p) {
+        return overriddenPeers.stream()
+                .anyMatch(p::covers);
+    }
+
+    public synchronized void register(Model m, Neuron<?> owner) {
+        PendingSynapsePageIndex idx = m.getPendingSynapsePageIndex();
+        for(SynapsePage p: pending)
+            idx.add(owner, inputSide, p);
+    }
+
+    /**
+     * Drops the pending pages without loading them, e.g. when the neuron is suspended.
+     */
+    public synchronized void discard(Model m) {
+        PendingSynapsePageIndex idx = m.getPendingSynapsePageIndex();
+        for(SynapsePage p: pending)
+            idx.remove(p);
+
+        pending = Collections.emptyList();
+    }
+
+    private synchronized List<SynapsePage> take(Model m, Predicate<SynapsePage> predicate, long peer) {
+        if(pending.isEmpty())
+            return Collections.emptyList();
+
+        List<SynapsePage> taken = new ArrayList<>();
+        List<SynapsePage> remaining = new ArrayList<>();
+        for(SynapsePage p: pending) {
+            boolean matches = predicate != null ?
+                    predicate.test(p) :
+                    p.contains(peer);
+
+            (matches ? taken : remaining).add(p);
+        }
+
+        PendingSynapsePageIndex idx = m.getPendingSynapsePageIndex();
+        for(SynapsePage p: taken)
+            idx.remove(p);
+
+        pending = remaining;
+        return taken;
+    }
+
+    /**
+     * Removes the pending pages matching the given predicate and links their synapses, except for the
+     * outdated versions of overridden synapses. Without a predicate the pages that may contain the synapse
+     * of the given peer are loaded, which spares the lookup of a single synapse a capturing lambda.
+     */
+    public List<Synapse> load(Model m, Predicate<SynapsePage> predicate, long peer) {
+        List<SynapsePage> pages = take(m, predicate, peer);
+        if(pages.isEmpty())
+            return Collections.emptyList();
+
+        Set<Long> skippedPeers;
+        synchronized (this) {
+            skippedPeers = new HashSet<>(overriddenPeers);
+        }
+
+        return pages.stream()
+                .flatMap(p ->
+                        p.load(m, s -> !skippedPeers.contains(peerId.applyAsLong(s))).stream()
+                )
+                .collect(Collectors.toList());
+    }
+
+    public synchronized void write(DataOutput out, Stream<Synapse> loadedSynapses) throws IOException {
+        List<Synapse> syns = loadedSynapses
+                .sorted(
+                        Comparator.<Synapse, String>comparing(s -> s.getClass().getName())
+                                .thenComparingLong(peerId)
+                )
+                .collect(Collectors.toList());
+
+        List<SynapsePage> pages = new ArrayList<>(pending);
+
+        int begin = 0;
+        for(int i = 1; i <= syns.size(); i++) {
+            if(i < syns.size() && i - begin < PAGE_SIZE && syns.get(i).getClass() == syns.get(begin).getClass())
+                continue;
+
+            pages.add(SynapsePage.create(syns.subList(begin, i), peerId));
+            begin = i;
+        }
+
+        out.writeInt(pages.size());
+        for(SynapsePage p: pages)
+            p.write(out);
+    }
+
+    public synchronized void readFields(DataInput in) throws IOException {
+        int numPages = in.readInt();
+        List<SynapsePage> pages = new ArrayList<>(numPages);
+        for(int i = 0; i < numPages; i++)
+            pages.add(SynapsePage.read(in));
+
+        pending = pages;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.elements.neurons;
+
+import network.aika.elements.synapses.Synapse;
+
+import java.util.*;
+
+/**
+ * Sub-indexes of the input or output synapses of a neuron for each queried synapse type. A sub-index is
+ * created on the first lookup for a type and kept in sync when synapses are linked or unlinked. Linking
+ * and unlinking only update a growable set per type. The array handed out to readers is a snapshot that
+ * is rebuilt on the first read after a change.
+ *
+ * @author Lukas Molzberger
+ */
+class SynapseTypeIndex {
+
+    private static class Entry {
+        final Set<Synapse> synapses = new LinkedHashSet<>();
+        Synapse[] snapshot;
+    }
+
+    private final Map<Class<?>, Entry> entries = new HashMap<>();
+
+    synchronized Synapse[] get(Class<?> synapseType, SynapseMap syns) {
+        Entry e = entries.get(synapseType);
+        if(e == null) {
+            e = new Entry();
+            for(Synapse s: syns.toArray()) {
+                if(synapseType.isInstance(s))
+                    e.synapses.add(s);
+            }
+            entries.put(synapseType, e);
+        }
+
+        if(e.snapshot == null)
+            e.snapshot = e.synapses.toArray(new Synapse[0]);
+
+        return e.snapshot;
+    }
+
+    synchronized void add(Synapse s) {
+        for(Map.Entry<Class<?>, Entry> me: entries.entrySet()) {
+            if(!me.getKey().isInstance(s))
+                continue;
+
+            Entry e = me.getValue();
+            if(e.synapses.add(s))
+                e.snapshot = null;
+        }
+    }
+
+    synchronized void remove(Synapse s) {
+        for(Map.Entry<Class<?>, Entry> me: entries.entrySet()) {
+            if(!me.getKey().isInstance(s))
+                continue;
+
+            Entry e = me.getValue();
+            if(e.synapses.remove(s))
+                e.snapshot = null;
+        }
+    }
+}
@@ -21,7 +21,6 @@ import network.aika.direction.Direction;
 import network.aika.elements.activations.TokenActivation;
 import network.aika.text.Document;
 
-import java.util.stream.Stream;
 
 
 /**
@@ -52,7 +51,7 @@ public class TokenPositionRelationNeuron extends LatentRelationNeuron {
     }
 
     @Override
-    public Stream<TokenActivation> evaluateLatentRelation(TokenActivation fromOriginAct, Direction dir) {
+    public TokenActivation[] evaluateLatentRelation(TokenActivation fromOriginAct, Direction dir) {
         Document doc = (Document) fromOriginAct.getThought();
 
         return doc.getRelatedTokensByTokenPosition(fromOriginAct, getRelFrom(dir), getRelTo(dir));
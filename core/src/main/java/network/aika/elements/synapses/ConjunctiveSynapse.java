@@ -26,7 +26,7 @@ import network.aika.elements.activations.BindingActivation;
 import network.aika.elements.activations.ConjunctiveActivation;
 import network.aika.elements.links.Link;
 import network.aika.fields.FieldLink;
-import network.aika.fields.QueueSumField;
+import network.aika.fields.BatchedSumField;
 import network.aika.fields.SumField;
 import network.aika.utils.Utils;
 
@@ -57,7 +57,7 @@ public abstract class ConjunctiveSynapse<S extends ConjunctiveSynapse, I extends
                 >
 {
 
-    protected SumField synapseBias = (SumField) new QueueSumField(this, TRAINING, "synapseBias", TOLERANCE, true)
+    protected SumField synapseBias = (SumField) new BatchedSumField(this, TRAINING, "synapseBias", TOLERANCE, true)
             .addListener("onSynapseBiasModified", () ->
                     setModified()
             );
@@ -140,12 +140,13 @@ public abstract class ConjunctiveSynapse<S extends ConjunctiveSynapse, I extends
     }
 
     public void setStoredAt(Direction newStoredAt) {
-        if(currentStoredAt != newStoredAt) {
-            input.getNeuron().setModified();
-            output.getNeuron().setModified();
-        }
+        if(currentStoredAt == newStoredAt)
+            return;
 
+        // The synapse moves from the record of one neuron to the record of the other.
+        currentStoredAt.getNeuron(this).setSynapseRemoved(this);
         currentStoredAt = newStoredAt;
+        setModified();
     }
 
     @Override
@@ -154,6 +155,14 @@ public abstract class ConjunctiveSynapse<S extends ConjunctiveSynapse, I extends
     }
 
     public void setSumOfLowerWeights(double sumOfLowerWeights) {
+        if(this.sumOfLowerWeights != sumOfLowerWeights) {
+            ConjunctiveNeuron on = (ConjunctiveNeuron) output.getIfNotSuspended();
+            if(on != null)
+                on.invalidateLatentLinkingPartners();
+
+            invalidateInputNeuronIndex();
+        }
+
         if(!Utils.belowTolerance(TOLERANCE, this.sumOfLowerWeights - sumOfLowerWeights))
             setModified();
 
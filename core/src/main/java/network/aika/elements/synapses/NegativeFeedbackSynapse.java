@@ -42,6 +42,11 @@ public class NegativeFeedbackSynapse extends FeedbackSynapse<
         return new NegativeFeedbackLink(this, input, output);
     }
 
+    @Override
+    public boolean isPropagating() {
+        return false;
+    }
+
     @Override
     public void linkAndPropagateOut(InhibitoryActivation act) {
         getOutput()
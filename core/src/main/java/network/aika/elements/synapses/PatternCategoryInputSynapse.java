@@ -39,6 +39,17 @@ public class PatternCategoryInputSynapse extends CategoryInputSynapse {
                 getSumOfLowerWeights();
     }
 
+    @Override
+    public double getPropagateOffset() {
+        return weight.getCurrentValue() +
+                getSumOfLowerWeights();
+    }
+
+    @Override
+    public boolean isPropagatingOnCompleteBias() {
+        return false;
+    }
+
     @Override
     public CategoryInputLink createLink(CategoryActivation input, Activation output) {
         return new PatternCategoryInputLink(this, input, output);
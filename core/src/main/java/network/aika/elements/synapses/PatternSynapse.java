@@ -33,11 +33,13 @@ import network.aika.utils.Utils;
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static network.aika.sign.Sign.NEG;
 import static network.aika.sign.Sign.POS;
+import static network.aika.elements.synapses.SynapseColumns.*;
 
 
 /**
@@ -54,11 +56,19 @@ public class PatternSynapse extends ConjunctiveSynapse<
         >
 {
 
-    protected double frequencyIPosOPos;
-    protected double frequencyIPosONeg;
-    protected double frequencyINegOPos;
+    /**
+     * The frequencies and the sample space of this synapse, only used if the model does not provide synapse
+     * columns. It has the layout of a column record.
+     */
+    private ByteBuffer statistics;
 
-    protected SampleSpace sampleSpace = new SampleSpace();
+    private static final int UNRESOLVED = -2;
+
+    /**
+     * The slot of the column record of this synapse, -1 if it has none. The slot is resolved once, so that
+     * reading the statistics does not need to synchronize on the index of the synapse columns.
+     */
+    private volatile int recordSlot = UNRESOLVED;
 
     public PatternSynapse() {
         super(Scope.SAME);
@@ -92,61 +102,215 @@ public class PatternSynapse extends ConjunctiveSynapse<
                 getSumOfLowerWeights();
     }
 
-    public SampleSpace getSampleSpace() {
-        return sampleSpace;
+    @Override
+    public double getPropagateOffset() {
+        return weight.getCurrentValue() +
+                getSumOfLowerWeights();
     }
 
-    public double getFrequency(Sign inputSign, Sign outputSign, double n) {
+    @Override
+    public boolean isPropagatingOnCompleteBias() {
+        return false;
+    }
+
+    @Override
+    public void unlink() {
+        super.unlink();
+
+        SynapseColumns columns = getSynapseColumns();
+        if(columns != null)
+            columns.release(input.getId(), output.getId());
+        recordSlot = -1;
+    }
+
+    private SynapseColumns getSynapseColumns() {
+        Model m = getModel();
+        return m != null && input != null ?
+                m.getSynapseColumns() :
+                null;
+    }
+
+    /**
+     * @return the slot of the column record of this synapse, or -1 if it has none
+     */
+    private int lookupRecord(SynapseColumns columns) {
+        if(columns == null)
+            return -1;
+
+        int s = recordSlot;
+        if(s == UNRESOLVED) {
+            s = columns.lookup(input.getId(), output.getId());
+            recordSlot = s;
+        }
+        return s;
+    }
+
+    private int acquireRecord(SynapseColumns columns) {
+        if(columns != null) {
+            int s = recordSlot;
+            if(s < 0) {
+                s = columns.acquire(input.getId(), output.getId());
+                recordSlot = s;
+            }
+            return s;
+        }
+
+        if(statistics == null)
+            statistics = createRecord();
+        return -1;
+    }
+
+    private double get(SynapseColumns columns, int slot, int column) {
+        if(columns != null)
+            return slot >= 0 ?
+                    columns.getDouble(slot, column) :
+                    getInitialValue(column);
+
+        return statistics != null ?
+                statistics.getDouble(column * Long.BYTES) :
+                getInitialValue(column);
+    }
+
+    private void set(SynapseColumns columns, int slot, int column, double v) {
+        if(columns != null)
+            columns.putDouble(slot, column, v);
+        else
+            statistics.putDouble(column * Long.BYTES, v);
+    }
+
+    private long getLong(SynapseColumns columns, int slot, int column) {
+        if(columns != null)
+            return slot >= 0 ?
+                    columns.getLong(slot, column) :
+                    getInitialLongValue(column);
+
+        return statistics != null ?
+                statistics.getLong(column * Long.BYTES) :
+                getInitialLongValue(column);
+    }
+
+    private void setLong(SynapseColumns columns, int slot, int column, long v) {
+        if(columns != null)
+            columns.putLong(slot, column, v);
+        else
+            statistics.putLong(column * Long.BYTES, v);
+    }
+
+    private static int getFrequencyColumn(Sign inputSign, Sign outputSign) {
         if(inputSign == POS && outputSign == POS) {
-            return frequencyIPosOPos;
+            return FREQUENCY_I_POS_O_POS;
         } else if(inputSign == POS && outputSign == NEG) {
-            return frequencyIPosONeg;
+            return FREQUENCY_I_POS_O_NEG;
         } else if(inputSign == NEG && outputSign == POS) {
-            return frequencyINegOPos;
+            return FREQUENCY_I_NEG_O_POS;
         }
+        return -1;
+    }
+
+    /**
+     * @return a copy of the sample space of this synapse
+     */
+    public SampleSpace getSampleSpace() {
+        SynapseColumns columns = getSynapseColumns();
+        int slot = lookupRecord(columns);
+
+        double alpha = get(columns, slot, SAMPLE_SPACE_ALPHA);
+        long lastPosition = getLong(columns, slot, SAMPLE_SPACE_LAST_POSITION);
+        return new SampleSpace(
+                get(columns, slot, SAMPLE_SPACE_N),
+                lastPosition != NULL_LONG ? lastPosition : null,
+                !Double.isNaN(alpha) ? alpha : null,
+                getLong(columns, slot, SAMPLE_SPACE_DECAY_REFERENCE)
+        );
+    }
+
+    private double getDecay(SynapseColumns columns, int slot) {
+        return SampleSpace.getDecay(
+                getModel(),
+                get(columns, slot, SAMPLE_SPACE_ALPHA),
+                getLong(columns, slot, SAMPLE_SPACE_DECAY_REFERENCE)
+        );
+    }
+
+    private long getInactiveInstancesSinceLastPos(SynapseColumns columns, int slot, Range absoluteRange) {
+        long lastPosition = getLong(columns, slot, SAMPLE_SPACE_LAST_POSITION);
+        if(absoluteRange == null || lastPosition == NULL_LONG)
+            return 0;
+
+        return SampleSpace.getInactiveInstances(lastPosition, absoluteRange);
+    }
+
+    public double getFrequency(Sign inputSign, Sign outputSign, double n) {
+        SynapseColumns columns = getSynapseColumns();
+        int slot = lookupRecord(columns);
+
+        double decay = getDecay(columns, slot);
+        int column = getFrequencyColumn(inputSign, outputSign);
+        if(column >= 0)
+            return get(columns, slot, column) * decay;
 
         //TODO:
-        return Math.max(n - (frequencyIPosOPos + frequencyIPosONeg + frequencyINegOPos), 0);
+        return Math.max(n - (
+                get(columns, slot, FREQUENCY_I_POS_O_POS) +
+                        get(columns, slot, FREQUENCY_I_POS_O_NEG) +
+                        get(columns, slot, FREQUENCY_I_NEG_O_POS)
+        ) * decay, 0);
     }
 
     public void setFrequency(Sign inputSign, Sign outputSign, double f) {
-        if(inputSign == POS && outputSign == POS) {
-            frequencyIPosOPos = f;
-        } else if(inputSign == POS && outputSign == NEG) {
-            frequencyIPosONeg = f;
-        } else if(inputSign == NEG && outputSign == POS) {
-            frequencyINegOPos = f;
-        } else {
+        SynapseColumns columns = getSynapseColumns();
+        int slot = acquireRecord(columns);
+
+        decay(columns, slot, get(columns, slot, SAMPLE_SPACE_ALPHA));
+
+        int column = getFrequencyColumn(inputSign, outputSign);
+        if(column < 0)
             throw new UnsupportedOperationException();
-        }
+
+        set(columns, slot, column, f);
         setModified();
     }
 
-    public void applyMovingAverage(double alpha) {
-        sampleSpace.applyMovingAverage(alpha);
-        frequencyIPosOPos *= alpha;
-        frequencyIPosONeg *= alpha;
-        frequencyINegOPos *= alpha;
-        setModified();
+    /**
+     * Brings N and the frequencies up to date and moves the decay reference to the current model-wide N.
+     *
+     * @param alpha the decay rate, NaN if no decay is configured
+     */
+    private void decay(SynapseColumns columns, int slot, double alpha) {
+        double decay = getDecay(columns, slot);
+        set(columns, slot, SAMPLE_SPACE_N, get(columns, slot, SAMPLE_SPACE_N) * decay);
+
+        Model m = getModel();
+        if(m != null)
+            setLong(columns, slot, SAMPLE_SPACE_DECAY_REFERENCE, m.getN());
+        set(columns, slot, SAMPLE_SPACE_ALPHA, alpha);
+
+        if(decay == 1.0)
+            return;
+
+        for(int column = FREQUENCY_I_POS_O_POS; column <= FREQUENCY_I_NEG_O_POS; column++)
+            set(columns, slot, column, get(columns, slot, column) * decay);
     }
 
     public void updateFrequencyForIandO(boolean inputActive,boolean outputActive){
-        if(inputActive && outputActive) {
-            frequencyIPosOPos += 1.0;
-            setModified();
-        } else if(inputActive) {
-            frequencyIPosONeg += 1.0;
-            setModified();
-        } else if(outputActive) {
-            frequencyINegOPos += 1.0;
-            setModified();
-        }
+        SynapseColumns columns = getSynapseColumns();
+        updateFrequencyForIandO(columns, acquireRecord(columns), inputActive, outputActive);
     }
 
-    @Override
-    public void count(PatternLink l) {
-        double oldN = sampleSpace.getN();
+    private void updateFrequencyForIandO(SynapseColumns columns, int slot, boolean inputActive, boolean outputActive) {
+        int column = getFrequencyColumn(
+                inputActive ? POS : NEG,
+                outputActive ? POS : NEG
+        );
+        if(column < 0)
+            return;
+
+        set(columns, slot, column, get(columns, slot, column) + 1.0);
+        setModified();
+    }
 
+    @Override
+    public synchronized void count(PatternLink l) {
         if(l.getInput() == null)
             return; // TODO: fix
 
@@ -157,25 +321,29 @@ public class PatternSynapse extends ConjunctiveSynapse<
         if(absoluteRange == null)
             return;
 
-        sampleSpace.countSkippedInstances(absoluteRange);
+        SynapseColumns columns = getSynapseColumns();
+        int slot = acquireRecord(columns);
 
-        sampleSpace.count();
+        Double alpha = l.getConfig().getAlpha();
+        decay(columns, slot, alpha != null ? alpha : Double.NaN);
 
-        if(outputActive) {
-            Double alpha = l.getConfig().getAlpha();
-            if (alpha != null)
-                applyMovingAverage(
-                        Math.pow(alpha, sampleSpace.getN() - oldN)
-                );
-        }
+        double n = get(columns, slot, SAMPLE_SPACE_N) +
+                getInactiveInstancesSinceLastPos(columns, slot, absoluteRange);
+        set(columns, slot, SAMPLE_SPACE_N, n + 1);
 
-        updateFrequencyForIandO(inputActive,outputActive);
-        sampleSpace.updateLastPosition(absoluteRange);
+        updateFrequencyForIandO(columns, slot, inputActive, outputActive);
+        setLong(columns, slot, SAMPLE_SPACE_LAST_POSITION, absoluteRange.getEnd());
     }
 
 
     public double getSurprisal(Sign inputSign, Sign outputSign, Range range, boolean addCurrentInstance) {
-        double n = sampleSpace.getN(range);
+        SynapseColumns columns = getSynapseColumns();
+        int slot = lookupRecord(columns);
+
+        double n = get(columns, slot, SAMPLE_SPACE_N) * getDecay(columns, slot) +
+                getInactiveInstancesSinceLastPos(columns, slot, range);
+        assert n >= 0.0;
+
         double probability = getProbability(inputSign, outputSign, n, addCurrentInstance);
         return Utils.surprisal(probability);
     }
@@ -189,28 +357,41 @@ public class PatternSynapse extends ConjunctiveSynapse<
             n += 1.0;
         }
 
-        return Bound.UPPER.probability(frequency, n);
+        return Bound.UPPER.probability(frequency, n, getBetaQuantile());
     }
 
     @Override
     public void write(DataOutput out) throws IOException {
         super.write(out);
 
-        out.writeDouble(frequencyIPosOPos);
-        out.writeDouble(frequencyIPosONeg);
-        out.writeDouble(frequencyINegOPos);
+        SynapseColumns columns = getSynapseColumns();
+        int slot = lookupRecord(columns);
+
+        out.writeDouble(get(columns, slot, FREQUENCY_I_POS_O_POS));
+        out.writeDouble(get(columns, slot, FREQUENCY_I_POS_O_NEG));
+        out.writeDouble(get(columns, slot, FREQUENCY_I_NEG_O_POS));
 
-        sampleSpace.write(out);
+        getSampleSpace().write(out);
     }
 
     @Override
     public void readFields(DataInput in, Model m) throws IOException {
         super.readFields(in, m);
 
-        frequencyIPosOPos = in.readDouble();
-        frequencyIPosONeg = in.readDouble();
-        frequencyINegOPos = in.readDouble();
+        SynapseColumns columns = getSynapseColumns();
+        int slot = acquireRecord(columns);
+
+        set(columns, slot, FREQUENCY_I_POS_O_POS, in.readDouble());
+        set(columns, slot, FREQUENCY_I_POS_O_NEG, in.readDouble());
+        set(columns, slot, FREQUENCY_I_NEG_O_POS, in.readDouble());
+
+        SampleSpace sampleSpace = SampleSpace.read(in, m);
+        Long lastPosition = sampleSpace.getLastPosition();
+        Double alpha = sampleSpace.getAlpha();
 
-        sampleSpace = SampleSpace.read(in, m);
+        set(columns, slot, SAMPLE_SPACE_N, sampleSpace.getN());
+        setLong(columns, slot, SAMPLE_SPACE_LAST_POSITION, lastPosition != null ? lastPosition : NULL_LONG);
+        set(columns, slot, SAMPLE_SPACE_ALPHA, alpha != null ? alpha : Double.NaN);
+        setLong(columns, slot, SAMPLE_SPACE_DECAY_REFERENCE, sampleSpace.getDecayReference());
     }
 }
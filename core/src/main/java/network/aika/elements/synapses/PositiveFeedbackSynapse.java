@@ -69,6 +69,11 @@ public class PositiveFeedbackSynapse extends FeedbackSynapse<
         return OUTPUT;
     }
 
+    @Override
+    public boolean isPropagating() {
+        return false;
+    }
+
     @Override
     public void linkAndPropagateOut(PatternActivation act) {
     }
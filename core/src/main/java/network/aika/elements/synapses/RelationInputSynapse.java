@@ -50,6 +50,11 @@ public class RelationInputSynapse extends BindingNeuronSynapse<
     protected void warmUpInputNeuron(Thought t) {
     }
 
+    @Override
+    public boolean isPropagating() {
+        return false;
+    }
+
     @Override
     public void linkAndPropagateOut(BindingActivation act) {
     }
@@ -25,12 +25,13 @@ import network.aika.elements.Element;
 import network.aika.elements.links.Link;
 import network.aika.elements.activations.Timestamp;
 import network.aika.direction.Direction;
-import network.aika.fields.QueueSumField;
+import network.aika.fields.BatchedSumField;
 import network.aika.fields.SumField;
 import network.aika.elements.neurons.Neuron;
 import network.aika.elements.neurons.NeuronProvider;
 import network.aika.utils.Utils;
 import network.aika.utils.Writable;
+import network.aika.visitor.linking.LatentActivationIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -60,9 +61,12 @@ public abstract class Synapse<S extends Synapse, I extends Neuron, O extends Neu
 
     protected S template;
 
-    protected SumField weight = (SumField) new QueueSumField(this, TRAINING, "weight", TOLERANCE, true)
+    protected SumField weight = (SumField) new BatchedSumField(this, TRAINING, "weight", TOLERANCE, true)
             .addListener("onWeightModified", () ->
                     setModified()
+            )
+            .addUpdateListener("onWeightUpdate", (fl, u) ->
+                    invalidateInputNeuronIndex()
             );
 
     protected boolean trainingAllowed = true;
@@ -109,6 +113,34 @@ public abstract class Synapse<S extends Synapse, I extends Neuron, O extends Neu
                 getWeight().getUpdatedCurrentValue();
     }
 
+    /**
+     * The propagate pre-net without the activation check callback. A suspended output neuron is not
+     * reactivated, the bound is derived from the bias it had when it was suspended.
+     */
+    public double getPropagateUpperBound() {
+        if(!output.isSuspended())
+            return getPropagatePreNet(null);
+
+        return output.getSuspendedPropagateUpperBound(
+                getPropagateOffset(),
+                isPropagatingOnCompleteBias()
+        );
+    }
+
+    /**
+     * The part of the propagate pre-net that does not depend on the bias of the output neuron.
+     */
+    public double getPropagateOffset() {
+        return getWeight().getUpdatedCurrentValue();
+    }
+
+    /**
+     * Whether the propagate pre-net depends on the complete bias of the output neuron or on its bias only.
+     */
+    public boolean isPropagatingOnCompleteBias() {
+        return true;
+    }
+
     public static double getLatentLinkingPreNet(Synapse synA, Synapse synB) {
         double preUB = synA.getWeight().getUpdatedCurrentValue();
 
@@ -125,6 +157,11 @@ public abstract class Synapse<S extends Synapse, I extends Neuron, O extends Neu
     }
 
     public static boolean latentActivationExists(Synapse synA, Synapse synB, Activation iActA, Activation iActB) {
+        if(LatentActivationIndex.isIndexed(synA, synB))
+            return iActA.getThought()
+                    .getLatentActivationIndex()
+                    .exists(synA, synB, iActA, iActB);
+
         Stream<Link> linksA = iActA.getOutputLinks(synA);
         return linksA.map(lA -> lA.getOutput())
                 .map(oAct -> oAct.getInputLink(synB))
@@ -168,12 +205,7 @@ public abstract class Synapse<S extends Synapse, I extends Neuron, O extends Neu
     }
 
     public void linkAndPropagateOut(IA act) {
-        getOutput()
-                .linkOutgoing(this, act);
-
-        if (!isFeedbackSynapse())
-            getOutput()
-                    .latentLinkOutgoing(this, act);
+        linkOut(act);
 
         if (getPropagatePreNet(act) > 0.0) {
             propagate(act);
@@ -182,14 +214,56 @@ public abstract class Synapse<S extends Synapse, I extends Neuron, O extends Neu
         }
     }
 
+    /**
+     * Equivalent to {@link #linkAndPropagateOut} for the case that the propagate pre-net is known to be
+     * non-positive.
+     */
+    public void linkAndWarmUpOut(IA act) {
+        linkOut(act);
+
+        if(getStoredAt() == INPUT)
+            warmUpRelatedInputNeurons(act);
+    }
+
+    protected void linkOut(IA act) {
+        O on = getOutput();
+
+        // Linking only connects to already existing output activations.
+        if(!on.getActivations(act.getThought()).isEmpty())
+            on.linkOutgoing(this, act);
+
+        if (!isFeedbackSynapse())
+            on.latentLinkOutgoing(this, act);
+    }
+
+    /**
+     * Synapses that never create new output activations through propagation are only used for linking.
+     */
+    public boolean isPropagating() {
+        return true;
+    }
+
     public boolean isFeedbackSynapse() {
         return false;
     }
 
+    /**
+     * Invalidates the output synapse index of the input neuron, which is ordered by the propagate upper
+     * bounds of its output synapses.
+     */
+    public void invalidateInputNeuronIndex() {
+        Neuron<?> in = input != null ?
+                input.getIfNotSuspended() :
+                null;
+
+        if(in != null)
+            in.invalidateOutputSynapseIndex();
+    }
+
     public void setModified() {
         Neuron n = getStoredAt().getNeuron(this);
         if(n != null)
-            n.setModified();
+            n.setSynapseModified(this);
     }
 
     public void count(L l) {
@@ -204,12 +278,7 @@ public abstract class Synapse<S extends Synapse, I extends Neuron, O extends Neu
     }
 
     public S instantiateTemplate(I input, O output) {
-        S s;
-        try {
-            s = (S) getClass().getConstructor().newInstance();
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
+        S s = getModel().getTypeRegistry().newInstance((Class<S>) getClass());
 
         s.initFromTemplate(input, output, this);
         return s;
@@ -245,6 +314,14 @@ public abstract class Synapse<S extends Synapse, I extends Neuron, O extends Neu
         output.linkOutput(this);
     }
 
+    /**
+     * Removes this synapse from both of its neurons for good.
+     */
+    public void unlink() {
+        input.unlinkInput(this);
+        output.unlinkOutput(this);
+    }
+
     public abstract L createLink(IA input, OA output);
 
     public L createAndInitLink(IA input, OA output) {
@@ -337,7 +414,7 @@ public abstract class Synapse<S extends Synapse, I extends Neuron, O extends Neu
 
     @Override
     public void write(DataOutput out) throws IOException {
-        out.writeUTF(getClass().getName());
+        getModel().getTypeRegistry().writeType(out, getClass());
 
         out.writeLong(input.getId());
         out.writeLong(output.getId());
@@ -346,9 +423,7 @@ public abstract class Synapse<S extends Synapse, I extends Neuron, O extends Neu
     }
 
     public static Synapse read(DataInput in, Model m) throws IOException {
-        String synClazz = in.readUTF();
-
-        Synapse s = (Synapse) m.modelClass(synClazz);
+        Synapse s = m.getTypeRegistry().readInstance(in);
         s.readFields(in, m);
         return s;
     }
@@ -0,0 +1,351 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.elements.synapses;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Column store for the statistics of synapses. Each synapse occupies a fixed size record in one of several
+ * equally sized segments, which are either direct buffers or regions of a memory-mapped file. The records
+ * are therefore kept outside of the Java heap and, in the mapped case, can exceed the available memory.
+ *
+ * A record is addressed by the ids of the input and the output neuron of its synapse, so that it does not
+ * depend on the synapse object. It outlives the suspension of both neurons and is only released once the
+ * synapse is unlinked. Since the key is part of the record, the index of a mapped store is rebuilt when an
+ * existing file is opened again.
+ *
+ * The last position and the decay reference are long columns, the others are double columns. The values of
+ * different records can be read and written concurrently, since only absolute buffer accesses are used.
+ *
+ * @author Lukas Molzberger
+ */
+public class SynapseColumns implements Closeable {
+
+    public static final int FREQUENCY_I_POS_O_POS = 0;
+    public static final int FREQUENCY_I_POS_O_NEG = 1;
+    public static final int FREQUENCY_I_NEG_O_POS = 2;
+    public static final int SAMPLE_SPACE_N = 3;
+    public static final int SAMPLE_SPACE_ALPHA = 4;
+    public static final int SAMPLE_SPACE_LAST_POSITION = 5;
+    public static final int SAMPLE_SPACE_DECAY_REFERENCE = 6;
+
+    public static final int NUMBER_OF_COLUMNS = 7;
+
+    /**
+     * Marks an unset optional value in a long column.
+     */
+    public static final long NULL_LONG = Long.MIN_VALUE;
+
+    private static final int STATE = 0;
+    private static final int KEY_INPUT = 1;
+    private static final int KEY_OUTPUT = 2;
+    private static final int HEADER_SIZE = 3;
+
+    private static final long STATE_UNUSED = 0;
+    private static final long STATE_USED = 1;
+    private static final long STATE_FREE = 2;
+
+    private static final int RECORD_SIZE = (HEADER_SIZE + NUMBER_OF_COLUMNS) * Long.BYTES;
+
+    private static final int SEGMENT_BITS = 12;
+    private static final int SEGMENT_MASK = (1 << SEGMENT_BITS) - 1;
+    private static final int SEGMENT_SIZE = RECORD_SIZE << SEGMENT_BITS;
+
+    private final FileChannel channel;
+
+    private volatile ByteBuffer[] segments = new ByteBuffer[0];
+
+    private int nextSlot;
+    private int[] freeSlots = new int[16];
+    private int numberOfFreeSlots;
+
+    /**
+     * Open addressing index from the key of a synapse to its slot. An empty bucket holds slot 0, the
+     * other buckets hold the slot plus one.
+     */
+    private long[] keyInputs = new long[64];
+    private long[] keyOutputs = new long[64];
+    private int[] slots = new int[64];
+    private int size;
+
+    private SynapseColumns(FileChannel channel) throws IOException {
+        this.channel = channel;
+
+        if(channel != null)
+            rebuildIndex(channel.size() / SEGMENT_SIZE);
+    }
+
+    public static SynapseColumns direct() {
+        try {
+            return new SynapseColumns(null);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static SynapseColumns mapped(Path file) throws IOException {
+        return new SynapseColumns(
+                FileChannel.open(file, CREATE, READ, WRITE)
+        );
+    }
+
+    public static boolean isLongColumn(int column) {
+        return column == SAMPLE_SPACE_LAST_POSITION ||
+                column == SAMPLE_SPACE_DECAY_REFERENCE;
+    }
+
+    public static double getInitialValue(int column) {
+        return column == SAMPLE_SPACE_ALPHA ?
+                Double.NaN :
+                0.0;
+    }
+
+    public static long getInitialLongValue(int column) {
+        return column == SAMPLE_SPACE_LAST_POSITION ?
+                NULL_LONG :
+                0;
+    }
+
+    /**
+     * @return an on-heap record holding the initial values of all columns, the value of a column is stored
+     * at the offset {@code column * Long.BYTES}
+     */
+    public static ByteBuffer createRecord() {
+        ByteBuffer record = ByteBuffer.allocate(NUMBER_OF_COLUMNS * Long.BYTES);
+        initRecord(record, 0);
+        return record;
+    }
+
+    private static void initRecord(ByteBuffer buffer, int offset) {
+        for(int c = 0; c < NUMBER_OF_COLUMNS; c++) {
+            if(isLongColumn(c))
+                buffer.putLong(offset + c * Long.BYTES, getInitialLongValue(c));
+            else
+                buffer.putDouble(offset + c * Long.BYTES, getInitialValue(c));
+        }
+    }
+
+    /**
+     * @return the slot of the record of the given synapse, or -1 if it has none
+     */
+    public synchronized int lookup(long inputId, long outputId) {
+        int mask = slots.length - 1;
+        for(int i = hash(inputId, outputId) & mask; slots[i] != 0; i = (i + 1) & mask) {
+            if(keyInputs[i] == inputId && keyOutputs[i] == outputId)
+                return slots[i] - 1;
+        }
+        return -1;
+    }
+
+    /**
+     * @return the slot of the record of the given synapse, which is allocated if it does not exist yet. The
+     * slot stays valid until the record is released, so that it can be kept by the synapse instead of being
+     * looked up under the lock of the index on every access.
+     */
+    public synchronized int acquire(long inputId, long outputId) {
+        int slot = lookup(inputId, outputId);
+        if(slot >= 0)
+            return slot;
+
+        slot = numberOfFreeSlots > 0 ?
+                freeSlots[--numberOfFreeSlots] :
+                nextSlot++;
+
+        ensureSegment(slot >>> SEGMENT_BITS);
+
+        putHeader(slot, STATE, STATE_USED);
+        putHeader(slot, KEY_INPUT, inputId);
+        putHeader(slot, KEY_OUTPUT, outputId);
+        initRecord(segments[slot >>> SEGMENT_BITS], getOffset(slot, HEADER_SIZE));
+
+        addToIndex(inputId, outputId, slot);
+        return slot;
+    }
+
+    public synchronized void release(long inputId, long outputId) {
+        int slot = removeFromIndex(inputId, outputId);
+        if(slot < 0)
+            return;
+
+        putHeader(slot, STATE, STATE_FREE);
+        addFreeSlot(slot);
+    }
+
+    /**
+     * @return the number of records currently in use
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    private void rebuildIndex(long numberOfSegments) {
+        ensureSegment((int) numberOfSegments - 1);
+
+        int numberOfSlots = (int) (numberOfSegments << SEGMENT_BITS);
+        for(int slot = 0; slot < numberOfSlots; slot++) {
+            long state = getHeader(slot, STATE);
+            if(state == STATE_USED)
+                addToIndex(getHeader(slot, KEY_INPUT), getHeader(slot, KEY_OUTPUT), slot);
+
+            if(state != STATE_UNUSED)
+                nextSlot = slot + 1;
+        }
+
+        for(int slot = 0; slot < nextSlot; slot++) {
+            if(getHeader(slot, STATE) != STATE_USED)
+                addFreeSlot(slot);
+        }
+    }
+
+    private void addFreeSlot(int slot) {
+        if(numberOfFreeSlots == freeSlots.length)
+            freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+
+        freeSlots[numberOfFreeSlots++] = slot;
+    }
+
+    private static int hash(long inputId, long outputId) {
+        long h = inputId * 0x9E3779B97F4A7C15L + outputId;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    private void addToIndex(long inputId, long outputId, int slot) {
+        if(2 * (size + 1) > slots.length)
+            resizeIndex(2 * slots.length);
+
+        int mask = slots.length - 1;
+        int i = hash(inputId, outputId) & mask;
+        while(slots[i] != 0)
+            i = (i + 1) & mask;
+
+        keyInputs[i] = inputId;
+        keyOutputs[i] = outputId;
+        slots[i] = slot + 1;
+        size++;
+    }
+
+    private int removeFromIndex(long inputId, long outputId) {
+        int mask = slots.length - 1;
+        int i = hash(inputId, outputId) & mask;
+        while(slots[i] != 0 && (keyInputs[i] != inputId || keyOutputs[i] != outputId))
+            i = (i + 1) & mask;
+
+        if(slots[i] == 0)
+            return -1;
+
+        int slot = slots[i] - 1;
+
+        // Shifts the following entries of the probe sequence back into the gap.
+        for(int j = (i + 1) & mask; slots[j] != 0; j = (j + 1) & mask) {
+            int home = hash(keyInputs[j], keyOutputs[j]) & mask;
+            if(((j - home) & mask) < ((j - i) & mask))
+                continue;
+
+            keyInputs[i] = keyInputs[j];
+            keyOutputs[i] = keyOutputs[j];
+            slots[i] = slots[j];
+            i = j;
+        }
+        slots[i] = 0;
+        size--;
+
+        return slot;
+    }
+
+    private void resizeIndex(int capacity) {
+        long[] oldInputs = keyInputs;
+        long[] oldOutputs = keyOutputs;
+        int[] oldSlots = slots;
+
+        keyInputs = new long[capacity];
+        keyOutputs = new long[capacity];
+        slots = new int[capacity];
+        size = 0;
+
+        for(int i = 0; i < oldSlots.length; i++) {
+            if(oldSlots[i] != 0)
+                addToIndex(oldInputs[i], oldOutputs[i], oldSlots[i] - 1);
+        }
+    }
+
+    private void ensureSegment(int s) {
+        if(s < segments.length)
+            return;
+
+        ByteBuffer[] segs = Arrays.copyOf(segments, s + 1);
+        for(int i = segments.length; i < segs.length; i++)
+            segs[i] = allocateSegment(i);
+
+        segments = segs;
+    }
+
+    private ByteBuffer allocateSegment(int s) {
+        if(channel == null)
+            return ByteBuffer.allocateDirect(SEGMENT_SIZE);
+
+        try {
+            return channel.map(FileChannel.MapMode.READ_WRITE, (long) s * SEGMENT_SIZE, SEGMENT_SIZE);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static int getOffset(int slot, int field) {
+        return (slot & SEGMENT_MASK) * RECORD_SIZE + field * Long.BYTES;
+    }
+
+    private long getHeader(int slot, int field) {
+        return segments[slot >>> SEGMENT_BITS].getLong(getOffset(slot, field));
+    }
+
+    private void putHeader(int slot, int field, long v) {
+        segments[slot >>> SEGMENT_BITS].putLong(getOffset(slot, field), v);
+    }
+
+    public double getDouble(int slot, int column) {
+        return segments[slot >>> SEGMENT_BITS].getDouble(getOffset(slot, HEADER_SIZE + column));
+    }
+
+    public void putDouble(int slot, int column, double v) {
+        segments[slot >>> SEGMENT_BITS].putDouble(getOffset(slot, HEADER_SIZE + column), v);
+    }
+
+    public long getLong(int slot, int column) {
+        return segments[slot >>> SEGMENT_BITS].getLong(getOffset(slot, HEADER_SIZE + column));
+    }
+
+    public void putLong(int slot, int column, long v) {
+        segments[slot >>> SEGMENT_BITS].putLong(getOffset(slot, HEADER_SIZE + column), v);
+    }
+
+    @Override
+    public void close() throws IOException {
+        segments = new ByteBuffer[0];
+        if(channel != null)
+            channel.close();
+    }
+}
@@ -40,7 +40,7 @@ public abstract class AbstractFunction extends Field implements FieldInput {
     protected void initIO(boolean weakRefs) {
         super.initIO(weakRefs);
 
-        // TODO: implement weakRefs
+        // The function arguments are fixed, weak references are only needed for open sums.
         inputs = new FieldLink[getNumberOfFunctionArguments()];
     }
 
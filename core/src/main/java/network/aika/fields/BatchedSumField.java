@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.fields;
+
+import network.aika.FieldObject;
+import network.aika.Thought;
+import network.aika.elements.Element;
+import network.aika.steps.Phase;
+
+/**
+ * Sum field for the trainable parameters of the model. Updates arriving through field links, i.e. from
+ * the weight update part of the field graph, are redirected into the mini-batch buffer of the model if
+ * mini-batch training is enabled for the current thought or if the thought is processed by a worker of a
+ * data-parallel training.
+ *
+ * @author Lukas Molzberger
+ */
+public class BatchedSumField extends QueueSumField {
+
+    private double pendingUpdate;
+    private boolean pending;
+
+    public BatchedSumField(FieldObject e, Phase p, String label, Double tolerance) {
+        super(e, p, label, tolerance);
+    }
+
+    public BatchedSumField(FieldObject e, Phase p, String label, Double tolerance, boolean weakRefs) {
+        super(e, p, label, tolerance, weakRefs);
+    }
+
+    @Override
+    public void receiveUpdate(AbstractFieldLink fl, double u) {
+        Thought t = ((Element) getReference()).getThought();
+        if(t != null && t.getModel().getMiniBatch().isDeferring(t.getConfig())) {
+            t.getModel().getMiniBatch().defer(this, u);
+            return;
+        }
+
+        super.receiveUpdate(fl, u);
+    }
+
+    /**
+     * @return true if this field was not yet registered in the mini-batch buffer
+     */
+    public boolean addPendingUpdate(double u) {
+        pendingUpdate += u;
+        if(pending)
+            return false;
+
+        pending = true;
+        return true;
+    }
+
+    public double getPendingUpdate() {
+        return pendingUpdate;
+    }
+
+    public void applyPendingUpdate() {
+        double u = pendingUpdate;
+        pendingUpdate = 0.0;
+        pending = false;
+
+        receiveUpdate(u);
+    }
+}
@@ -18,6 +18,7 @@ package network.aika.fields;
 
 import network.aika.FieldObject;
 import network.aika.Model;
+import network.aika.callbacks.UpdateListener;
 import network.aika.utils.Utils;
 import network.aika.utils.Writable;
 
@@ -28,6 +29,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 
 import static network.aika.fields.ListenerFieldLink.createEventListener;
+import static network.aika.fields.ListenerFieldLink.createUpdateListener;
 
 
 /**
@@ -70,8 +72,18 @@ public abstract class Field implements FieldInput, FieldOutput, Writable {
         return this;
     }
 
+    public Field addUpdateListener(String listenerName, UpdateListener updateListener) {
+        ListenerFieldLink fl = createUpdateListener(this, listenerName, updateListener);
+        addOutput(fl);
+        fl.connect(false);
+
+        return this;
+    }
+
     protected void initIO(boolean weakRefs) {
-        receivers = new ArrayList<>();
+        receivers = weakRefs ?
+                ScopedFieldLinks.receivers() :
+                new ArrayList<>();
     }
 
     public Field setInitialValue(double initialValue) {
@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.fields;
+
+import network.aika.FieldObject;
+import network.aika.Thought;
+
+import java.lang.ref.WeakReference;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * Field link collection of a long-lived model field. Links whose other end belongs to a thought are not
+ * held by the model field itself, but by the thought. The model field only keeps weak references to the
+ * thoughts it is connected to. Dropping a thought therefore releases its field links without having to
+ * unlink them from the model fields one by one, and links of already disconnected thoughts no longer
+ * receive updates.
+ *
+ * Iterating the collection walks the model links and the link lists of the live thoughts in place, without
+ * copying them. Links that a thought appends to its list while it is being iterated are not visited.
+ *
+ * @author Lukas Molzberger
+ */
+public class ScopedFieldLinks<L extends AbstractFieldLink> extends AbstractCollection<L> {
+
+    private final Function<L, Object> remoteReference;
+
+    /**
+     * Links of the model field are rarely added, but iterated on every update, possibly by several worker
+     * threads of a data-parallel training at once.
+     */
+    private final List<L> modelLinks = new CopyOnWriteArrayList<>();
+
+    private final List<WeakReference<Thought>> thoughts = new CopyOnWriteArrayList<>();
+
+    private ScopedFieldLinks(Function<L, Object> remoteReference) {
+        this.remoteReference = remoteReference;
+    }
+
+    public static ScopedFieldLinks<AbstractFieldLink> receivers() {
+        return new ScopedFieldLinks<>(fl ->
+                fl.getOutput() instanceof FieldOutput ?
+                        ((FieldOutput) fl.getOutput()).getReference() :
+                        null
+        );
+    }
+
+    public static ScopedFieldLinks<FieldLink> inputs() {
+        return new ScopedFieldLinks<>(fl ->
+                fl.getInput() != null ?
+                        fl.getInput().getReference() :
+                        null
+        );
+    }
+
+    private Thought getScope(L fl) {
+        Object ref = remoteReference.apply(fl);
+        return ref instanceof FieldObject ?
+                ((FieldObject) ref).getThoughtScope() :
+                null;
+    }
+
+    @Override
+    public boolean add(L fl) {
+        Thought t = getScope(fl);
+        if(t == null)
+            return modelLinks.add(fl);
+
+        return getThoughtLinks(t, true).add(fl);
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        L fl = (L) o;
+        Thought t = getScope(fl);
+        if(t == null)
+            return modelLinks.remove(fl);
+
+        List<L> tLinks = getThoughtLinks(t, false);
+        return tLinks != null && tLinks.remove(fl);
+    }
+
+    private List<L> getThoughtLinks(Thought t, boolean create) {
+        List<L> tLinks = t.getScopedFieldLinks(this);
+        if(tLinks == null && create) {
+            tLinks = new ArrayList<>();
+            t.putScopedFieldLinks(this, tLinks);
+
+            thoughts.removeIf(ref -> !isLive(ref.get()));
+            thoughts.add(new WeakReference<>(t));
+        }
+        return tLinks;
+    }
+
+    private List<L> getLiveThoughtLinks(WeakReference<Thought> ref) {
+        Thought t = ref.get();
+        return isLive(t) ?
+                t.getScopedFieldLinks(this) :
+                null;
+    }
+
+    private static boolean isLive(Thought t) {
+        return t != null && !t.isDisconnected();
+    }
+
+    @Override
+    public Iterator<L> iterator() {
+        return new LinkIterator();
+    }
+
+    @Override
+    public int size() {
+        int size = modelLinks.size();
+        for(WeakReference<Thought> ref: thoughts) {
+            List<L> tLinks = getLiveThoughtLinks(ref);
+            if(tLinks != null)
+                size += tLinks.size();
+        }
+        return size;
+    }
+
+    private class LinkIterator implements Iterator<L> {
+
+        private final Iterator<L> modelIterator = modelLinks.iterator();
+        private final Iterator<WeakReference<Thought>> thoughtIterator = thoughts.iterator();
+
+        private List<L> tLinks;
+        private int pos;
+        private int end;
+
+        @Override
+        public boolean hasNext() {
+            if(modelIterator.hasNext())
+                return true;
+
+            while(tLinks == null || pos >= Math.min(end, tLinks.size())) {
+                if(!thoughtIterator.hasNext())
+                    return false;
+
+                tLinks = getLiveThoughtLinks(thoughtIterator.next());
+                pos = 0;
+                end = tLinks != null ? tLinks.size() : 0;
+            }
+            return true;
+        }
+
+        @Override
+        public L next() {
+            if(!hasNext())
+                throw new NoSuchElementException();
+
+            return modelIterator.hasNext() ?
+                    modelIterator.next() :
+                    tLinks.get(pos++);
+        }
+    }
+}
@@ -21,8 +21,9 @@ public class SumField extends Field {
     protected void initIO(boolean weakRefs) {
         super.initIO(weakRefs);
 
-        // TODO: implement weakRefs
-        inputs = new ArrayList<>();
+        inputs = weakRefs ?
+                ScopedFieldLinks.inputs() :
+                new ArrayList<>();
     }
 
     @Override
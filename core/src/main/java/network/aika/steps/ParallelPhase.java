@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.steps;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Processes the steps of a phase in parallel on a fork-join pool. The steps are partitioned by their
+ * shard id, the steps of one shard are processed sequentially in queue order. Steps that are not
+ * sharded are processed afterwards on the calling thread.
+ *
+ * @author Lukas Molzberger
+ */
+public class ParallelPhase {
+
+    private final Map<Long, List<Step>> shards = new LinkedHashMap<>();
+    private final List<Step> unsharded = new ArrayList<>();
+
+    public void add(Step s) {
+        if(s instanceof ShardedStep)
+            shards.computeIfAbsent(((ShardedStep) s).getShardId(), id -> new ArrayList<>())
+                    .add(s);
+        else
+            unsharded.add(s);
+    }
+
+    public int getNumberOfShards() {
+        return shards.size();
+    }
+
+    public void process(ForkJoinPool pool) {
+        List<List<Step>> shardList = new ArrayList<>(shards.values());
+        pool.submit(() ->
+                shardList.parallelStream()
+                        .forEach(shard ->
+                                shard.forEach(Step::process)
+                        )
+        ).join();
+
+        unsharded.forEach(Step::process);
+    }
+}
@@ -14,31 +14,15 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-package network.aika.elements.activations;
-
-import network.aika.elements.neurons.NeuronProvider;
-
-import java.util.Comparator;
+package network.aika.steps;
 
 /**
+ * A step that only mutates state owned by a single neuron, namely the neuron itself and its input
+ * synapses. Steps with different shard ids can therefore be processed concurrently.
  *
  * @author Lukas Molzberger
  */
-public class OutputKey {
-
-    public static final Comparator<OutputKey> COMPARATOR = Comparator
-            .<OutputKey, NeuronProvider>comparing(ok -> ok.n)
-            .thenComparingInt(ok -> ok.actId);
-
-    private final NeuronProvider n;
-    private final Integer actId;
-
-    public OutputKey(NeuronProvider n, Integer actId) {
-        this.n = n;
-        this.actId = actId;
-    }
+public interface ShardedStep {
 
-    public String toString() {
-        return "[" + n.getId() + "]:" + actId;
-    }
+    long getShardId();
 }
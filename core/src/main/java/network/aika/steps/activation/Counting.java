@@ -18,6 +18,7 @@ package network.aika.steps.activation;
 
 import network.aika.elements.activations.Activation;
 import network.aika.steps.Phase;
+import network.aika.steps.ShardedStep;
 import network.aika.steps.Step;
 
 /**
@@ -25,7 +26,7 @@ import network.aika.steps.Step;
  *
  * @author Lukas Molzberger
  */
-public class Counting extends Step<Activation> {
+public class Counting extends Step<Activation> implements ShardedStep {
 
     public static void add(Activation act) {
         if (act.getConfig().isCountingEnabled() && !act.getNeuron().isAbstract())
@@ -41,6 +42,11 @@ public class Counting extends Step<Activation> {
         return Phase.COUNTING;
     }
 
+    @Override
+    public long getShardId() {
+        return getElement().getNeuron().getId();
+    }
+
     @Override
     public void process() {
         Activation act = getElement();
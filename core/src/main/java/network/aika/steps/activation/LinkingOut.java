@@ -18,6 +18,9 @@ package network.aika.steps.activation;
 
 import network.aika.elements.neurons.Neuron;
 import network.aika.elements.activations.Activation;
+import network.aika.elements.neurons.OutputSynapseIndex;
+import network.aika.elements.neurons.PreActivation;
+import network.aika.elements.synapses.Synapse;
 import network.aika.steps.Phase;
 import network.aika.steps.Step;
 
@@ -44,11 +47,31 @@ public class LinkingOut extends Step<Activation> {
         Activation<?> act = getElement();
         Neuron<?> n = act.getNeuron();
 
-        n.getOutputSynapsesAsStream(act.getThought())
-                .collect(Collectors.toList())
-                .forEach(s ->
-                        s.linkAndPropagateOut(act)
-                );
+        PreActivation<?> preAct = n.getPreActivation(act.getThought());
+        if(preAct != null)
+            preAct.getOutputSynapses()
+                    .collect(Collectors.toList())
+                    .forEach(s ->
+                            s.linkAndPropagateOut(act)
+                    );
+
+        OutputSynapseIndex idx = n.getOutputSynapseIndex();
+
+        // The synapses are ordered by their propagate upper bound. Once the bound drops below zero,
+        // none of the remaining synapses is able to propagate and only the linking remains. A suspended
+        // output neuron has no activations to link to and is not reactivated for the latent linking.
+        int i = 0;
+        for(; i < idx.size() && idx.getPropagateUpperBound(i) > 0.0; i++)
+            idx.getPropagating(i).linkAndPropagateOut(act);
+
+        for(; i < idx.size(); i++) {
+            Synapse s = idx.getPropagating(i);
+            if(!s.getPOutput().isSuspended())
+                s.linkAndWarmUpOut(act);
+        }
+
+        for(Synapse s: idx.getLinkingOnly())
+            s.linkAndPropagateOut(act);
     }
 
     @Override
@@ -48,5 +48,6 @@ public class Cleanup extends Step<Link> {
 
         l.unlinkInput();
         l.unlinkOutput();
+        l.getThought().unregister(l);
     }
 }
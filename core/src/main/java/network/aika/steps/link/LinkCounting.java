@@ -18,14 +18,16 @@ package network.aika.steps.link;
 
 import network.aika.elements.links.Link;
 import network.aika.steps.Phase;
+import network.aika.steps.ShardedStep;
 import network.aika.steps.Step;
 
 /**
- * Counts the number of activations a particular neuron has encountered.
+ * Counts the number of activations a particular synapse has encountered. The synapse statistics are owned
+ * by the output neuron, which therefore determines the shard.
  *
  * @author Lukas Molzberger
  */
-public class LinkCounting extends Step<Link> {
+public class LinkCounting extends Step<Link> implements ShardedStep {
 
     public static void add(Link l) {
         if (l.getConfig().isCountingEnabled() && !l.getOutput().getNeuron().isAbstract())
@@ -41,6 +43,11 @@ public class LinkCounting extends Step<Link> {
         return Phase.COUNTING;
     }
 
+    @Override
+    public long getShardId() {
+        return getElement().getOutput().getNeuron().getId();
+    }
+
     @Override
     public void process() {
         Link l = getElement();
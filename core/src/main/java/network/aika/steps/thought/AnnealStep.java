@@ -44,10 +44,16 @@ public class AnnealStep extends Step<Thought> {
     @Override
     public void process() {
         Thought t = getElement();
+        double annealValue = t.getAnnealing().getCurrentValue();
 
-        nextStep = t.getConfig().getAnnealStepSize() / ActivationFunction.RECTIFIED_HYPERBOLIC_TANGENT.outerGrad(t.getAnnealing().getCurrentValue());
-        double nextAnnealValue = nextStep + t.getAnnealing().getCurrentValue();
-        nextAnnealValue = Math.min(nextAnnealValue, 1.0);
+        double nextAnnealValue;
+        if(t.getConfig().isAdaptiveAnnealingEnabled()) {
+            nextAnnealValue = t.getAnnealingController().nextAnnealValue(t);
+        } else {
+            nextAnnealValue = annealValue + t.getConfig().getAnnealStepSize() / ActivationFunction.RECTIFIED_HYPERBOLIC_TANGENT.outerGrad(annealValue);
+            nextAnnealValue = Math.min(nextAnnealValue, 1.0);
+        }
+        nextStep = nextAnnealValue - annealValue;
 
         t.getAnnealing().setValue(nextAnnealValue);
 
@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.steps.thought;
+
+import network.aika.Thought;
+import network.aika.elements.activations.Activation;
+import network.aika.elements.links.NegativeFeedbackLink;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static network.aika.elements.neurons.ActivationFunction.RECTIFIED_HYPERBOLIC_TANGENT;
+
+/**
+ * Chooses the annealing schedule of a thought. After each step the fired states and net values of all
+ * activations receiving a negative feedback link are compared with those of the previous step. The step
+ * size is doubled while the fired set remains unchanged and falls back below the configured step size
+ * after a decision flip. Since the negative feedback input of an activation grows linearly with the
+ * annealing value, the annealing value at which its net crosses zero can be predicted. Steps are clipped
+ * to the nearest predicted flip, and once no flip is predicted up to the end of the annealing the
+ * remaining steps are skipped.
+ *
+ * @author Lukas Molzberger
+ */
+public class AnnealingController {
+
+    public static final double MIN_STEP_SCALE = 0.125;
+    public static final double MAX_STEP_SCALE = 16.0;
+
+    private static final double FLIP_MARGIN = 0.0001;
+
+    private final Map<Object, State> states = new IdentityHashMap<>();
+
+    private final List<ScheduleEntry> schedule = new ArrayList<>();
+
+    private double stepScale = 1.0;
+
+    private ScheduleEntry lastEntry;
+
+    public double nextAnnealValue(Thought t) {
+        return nextAnnealValue(
+                t.getAnnealing().getCurrentValue(),
+                t.getConfig().getAnnealStepSize(),
+                collectStates(t)
+        );
+    }
+
+    /**
+     * @param a the current annealing value
+     * @param annealStepSize the configured step size
+     * @param current the states of the activations receiving a negative feedback link, keyed by the
+     *                activation itself
+     */
+    public double nextAnnealValue(double a, double annealStepSize, Map<?, State> current) {
+        int flips = 0;
+        double maxNetDelta = 0.0;
+        double nearestFlip = Double.MAX_VALUE;
+        for(Map.Entry<?, State> e: current.entrySet()) {
+            State s = e.getValue();
+            State lastS = states.get(e.getKey());
+            if(lastS != null) {
+                if(lastS.fired != s.fired)
+                    flips++;
+                maxNetDelta = Math.max(maxNetDelta, Math.abs(s.net - lastS.net));
+            }
+
+            double flipAt = s.predictFlip(a);
+            if(flipAt > a)
+                nearestFlip = Math.min(nearestFlip, flipAt);
+        }
+        states.clear();
+        states.putAll(current);
+
+        if(!schedule.isEmpty())
+            stepScale = flips > 0 ?
+                    Math.max(MIN_STEP_SCALE, Math.min(stepScale, 1.0) * 0.5) :
+                    Math.min(MAX_STEP_SCALE, stepScale * 2.0);
+
+        double step = stepScale * annealStepSize / RECTIFIED_HYPERBOLIC_TANGENT.outerGrad(a);
+
+        boolean stable = flips == 0 && nearestFlip > 1.0;
+
+        double nextAnnealValue;
+        if(stable)
+            nextAnnealValue = 1.0;
+        else
+            nextAnnealValue = Math.min(
+                    Math.min(a + step, nearestFlip + FLIP_MARGIN),
+                    1.0
+            );
+
+        lastEntry = new ScheduleEntry(a, nextAnnealValue, stepScale, flips, maxNetDelta, stable);
+        schedule.add(lastEntry);
+
+        return nextAnnealValue;
+    }
+
+    private static Map<Activation, State> collectStates(Thought t) {
+        Map<Activation, State> states = new IdentityHashMap<>();
+        t.getNegativeFeedbackLinks().forEach(l -> {
+            State s = states.computeIfAbsent(l.getOutput(), act ->
+                    new State(
+                            act.isFired(),
+                            act.getNet().getCurrentValue(),
+                            0.0
+                    )
+            );
+            s.slope += getSlope(l);
+        });
+        return states;
+    }
+
+    /**
+     * The derivative of the weighted input of the link with respect to the annealing value.
+     */
+    private static double getSlope(NegativeFeedbackLink l) {
+        return l.getMaxInput().getCurrentValue() *
+                l.getSynapse().getWeight().getCurrentValue();
+    }
+
+    public List<ScheduleEntry> getSchedule() {
+        return Collections.unmodifiableList(schedule);
+    }
+
+    public ScheduleEntry getLastEntry() {
+        return lastEntry;
+    }
+
+    /**
+     * The fired state and net value of an activation together with the derivative of its net with
+     * respect to the annealing value.
+     */
+    public static class State {
+        final boolean fired;
+        final double net;
+        double slope;
+
+        public State(boolean fired, double net, double slope) {
+            this.fired = fired;
+            this.net = net;
+            this.slope = slope;
+        }
+
+        public boolean isFired() {
+            return fired;
+        }
+
+        public double getNet() {
+            return net;
+        }
+
+        public double getSlope() {
+            return slope;
+        }
+
+        double predictFlip(double a) {
+            if(slope == 0.0)
+                return Double.MAX_VALUE;
+
+            return a - (net / slope);
+        }
+    }
+
+    public static class ScheduleEntry {
+        private final double from;
+        private final double to;
+        private final double stepScale;
+        private final int flips;
+        private final double maxNetDelta;
+        private final boolean stable;
+
+        public ScheduleEntry(double from, double to, double stepScale, int flips, double maxNetDelta, boolean stable) {
+            this.from = from;
+            this.to = to;
+            this.stepScale = stepScale;
+            this.flips = flips;
+            this.maxNetDelta = maxNetDelta;
+            this.stable = stable;
+        }
+
+        public double getFrom() {
+            return from;
+        }
+
+        public double getTo() {
+            return to;
+        }
+
+        public double getStepScale() {
+            return stepScale;
+        }
+
+        public int getFlips() {
+            return flips;
+        }
+
+        public double getMaxNetDelta() {
+            return maxNetDelta;
+        }
+
+        public boolean isStable() {
+            return stable;
+        }
+
+        @Override
+        public String toString() {
+            return "from:" + from +
+                    " to:" + to +
+                    " stepScale:" + stepScale +
+                    " flips:" + flips +
+                    " maxNetDelta:" + maxNetDelta +
+                    " stable:" + stable;
+        }
+    }
+}
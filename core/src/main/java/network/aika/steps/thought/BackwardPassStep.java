@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.steps.thought;
+
+import network.aika.Thought;
+import network.aika.steps.Phase;
+import network.aika.steps.Step;
+import network.aika.training.BackwardPass;
+
+import static network.aika.steps.Phase.TRAINING;
+
+/**
+ *
+ * @author Lukas Molzberger
+ */
+public class BackwardPassStep extends Step<Thought> {
+
+    public static void add(Thought t) {
+        add(new BackwardPassStep(t));
+    }
+
+    public BackwardPassStep(Thought t) {
+        super(t);
+    }
+
+    @Override
+    public void process() {
+        new BackwardPass(getElement())
+                .process();
+    }
+
+    @Override
+    public Phase getPhase() {
+        return TRAINING;
+    }
+
+    @Override
+    public String toString() {
+        return "docId:" + getElement().getId();
+    }
+}
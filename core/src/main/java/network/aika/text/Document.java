@@ -41,10 +41,7 @@ public class Document extends Thought {
 
     private final StringBuilder content;
 
-    private NavigableMap<PositionKey, TokenActivation> tokenPosIndex = new TreeMap<>(Comparator
-            .<PositionKey>comparingInt(pk -> pk.getTokenPosition())
-            .thenComparingInt(pk -> pk.getActId())
-    );
+    private final TokenPositionIndex tokenPosIndex = new TokenPositionIndex();
 
     private NavigableMap<RangeKey, TokenActivation> rangeIndex = new TreeMap<>(Comparator
             .<RangeKey>comparingLong(rk -> rk.getRange().getBegin())
@@ -63,17 +60,18 @@ public class Document extends Thought {
 
     public void registerTokenActivation(TokenActivation tokenAct) {
         if(tokenAct.getTokenPos() != null)
-            tokenPosIndex.put(new PositionKey(tokenAct), tokenAct);
+            tokenPosIndex.add(tokenAct);
 
         if(tokenAct.getRange() != null)
             rangeIndex.put(new RangeKey(tokenAct), tokenAct);
     }
 
-    public Stream<TokenActivation> getRelatedTokensByTokenPosition(TokenActivation fromTokenAct, int relFrom, int relTo) {
-        return tokenPosIndex.subMap(
-                new PositionKey(fromTokenAct.getTokenPos() + relFrom, Integer.MIN_VALUE),
-                new PositionKey(fromTokenAct.getTokenPos() + relTo, Integer.MAX_VALUE)
-        ).values().stream();
+    public TokenActivation[] getRelatedTokensByTokenPosition(TokenActivation fromTokenAct, int relFrom, int relTo) {
+        return tokenPosIndex.getRelatedTokens(fromTokenAct.getTokenPos(), relFrom, relTo);
+    }
+
+    public TokenPositionIndex getTokenPositionIndex() {
+        return tokenPosIndex;
     }
 
     public Stream<TokenActivation> getRelatedTokensByCharPosition(Range fromRange, Range toRange) {
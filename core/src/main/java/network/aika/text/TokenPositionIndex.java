@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.text;
+
+import network.aika.elements.activations.TokenActivation;
+
+import java.util.*;
+
+/**
+ * Dense index of the token activations of a document, addressed by their token position.
+ * The token activations of a relative position window are cached per relation window and origin
+ * position, so that repeated relation expansions within a thought become plain array lookups.
+ *
+ * @author Lukas Molzberger
+ */
+public class TokenPositionIndex {
+
+    private static final TokenActivation[] EMPTY = new TokenActivation[0];
+
+    private TokenActivation[][] tokensByPos = new TokenActivation[16][];
+
+    private int length = 0;
+
+    private final Map<Long, TokenActivation[][]> neighbourhoods = new HashMap<>();
+
+    public void add(TokenActivation tokenAct) {
+        int pos = tokenAct.getTokenPos();
+        assert pos >= 0;
+
+        if(pos >= tokensByPos.length)
+            tokensByPos = Arrays.copyOf(tokensByPos, Math.max(pos + 1, 2 * tokensByPos.length));
+
+        TokenActivation[] acts = tokensByPos[pos];
+        if(acts == null) {
+            acts = new TokenActivation[] {tokenAct};
+        } else {
+            acts = Arrays.copyOf(acts, acts.length + 1);
+            acts[acts.length - 1] = tokenAct;
+            Arrays.sort(acts);
+        }
+        tokensByPos[pos] = acts;
+        length = Math.max(length, pos + 1);
+
+        // A new token might be part of any of the cached neighbourhoods.
+        neighbourhoods.clear();
+    }
+
+    public TokenActivation[] getTokens(int pos) {
+        if(pos < 0 || pos >= length)
+            return EMPTY;
+
+        TokenActivation[] acts = tokensByPos[pos];
+        return acts != null ? acts : EMPTY;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Returns the token activations within the relative token position window [relFrom, relTo] around the
+     * given origin position, ordered by token position and activation id.
+     */
+    public TokenActivation[] getRelatedTokens(int pos, int relFrom, int relTo) {
+        if(pos < 0 || pos >= length)
+            return collectRelatedTokens(pos, relFrom, relTo);
+
+        TokenActivation[][] posNeighbourhoods = neighbourhoods.computeIfAbsent(
+                getWindowKey(relFrom, relTo),
+                k -> new TokenActivation[length][]
+        );
+
+        TokenActivation[] result = posNeighbourhoods[pos];
+        if(result == null) {
+            result = collectRelatedTokens(pos, relFrom, relTo);
+            posNeighbourhoods[pos] = result;
+        }
+        return result;
+    }
+
+    private TokenActivation[] collectRelatedTokens(int pos, int relFrom, int relTo) {
+        int from = Math.max(pos + relFrom, 0);
+        int to = Math.min(pos + relTo, length - 1);
+
+        int size = 0;
+        for(int i = from; i <= to; i++)
+            size += getTokens(i).length;
+
+        if(size == 0)
+            return EMPTY;
+
+        TokenActivation[] result = new TokenActivation[size];
+        int j = 0;
+        for(int i = from; i <= to; i++) {
+            TokenActivation[] acts = getTokens(i);
+            System.arraycopy(acts, 0, result, j, acts.length);
+            j += acts.length;
+        }
+        return result;
+    }
+
+    private static long getWindowKey(int relFrom, int relTo) {
+        return ((long) relFrom << 32) | (relTo & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.training;
+
+import network.aika.Thought;
+import network.aika.elements.activations.Activation;
+import network.aika.elements.links.Link;
+import network.aika.fields.Field;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reverse-mode alternative to the gradient and weight update fields. Once inference and annealing of a
+ * thought are finished, the gradients of all trainable activations are computed in reverse topological
+ * order, i.e. the gradient of an activation is computed after the gradients of the activations it
+ * depends on. From the gradients the update values and finally the parameter deltas are derived. All
+ * intermediate values are kept in flat arrays indexed by the activation id, and the parameter deltas are
+ * summed up per field before they are applied.
+ *
+ * The activations and links contribute to the pass through the same hooks that connect their gradient
+ * and weight update fields in the field graph, see {@link Activation#backwardEntropy(BackwardPass)},
+ * {@link Link#backwardGradient(BackwardPass)} and the corresponding update value and weight update hooks.
+ *
+ * @author Lukas Molzberger
+ */
+public class BackwardPass {
+
+    private static final byte NOT_VISITED = 0;
+    private static final byte IN_PROGRESS = 1;
+    private static final byte DONE = 2;
+
+    private final Thought thought;
+
+    private final List<Activation> activations;
+    private final List<Link> links;
+
+    private final double[] entropy;
+    private final double[] gradient;
+    private final byte[] gradientState;
+    private final double[] updateValue;
+
+    private final Map<Field, Integer> parameterIndex = new IdentityHashMap<>();
+    private Field[] parameters = new Field[16];
+    private double[] parameterDeltas = new double[16];
+
+    public BackwardPass(Thought t) {
+        thought = t;
+
+        activations = t.getActivations().stream()
+                .filter(act -> act.getNeuron().isTrainingAllowed())
+                .collect(Collectors.toList());
+
+        links = activations.stream()
+                .flatMap(act -> (Stream<Link>) act.getInputLinks())
+                .filter(BackwardPass::isTrainable)
+                .collect(Collectors.toList());
+
+        int size = t.getArena().getActivationIdRange();
+
+        entropy = new double[size];
+        gradient = new double[size];
+        gradientState = new byte[size];
+        updateValue = new double[size];
+
+        Arrays.fill(entropy, Double.NaN);
+        Arrays.fill(updateValue, Double.NaN);
+    }
+
+    private static boolean isTrainable(Link l) {
+        return l.getInput() != null &&
+                l.getOutput() != null &&
+                l.getSynapse().isTrainingAllowed();
+    }
+
+    public Thought getThought() {
+        return thought;
+    }
+
+    public void process() {
+        activations.forEach(act ->
+                act.backwardEntropy(this)
+        );
+
+        activations.forEach(this::getGradient);
+
+        activations.forEach(act ->
+                act.backwardUpdateValue(this)
+        );
+        links.forEach(l ->
+                l.backwardUpdateValue(this)
+        );
+
+        activations.forEach(act ->
+                act.backwardWeightUpdate(this)
+        );
+        links.forEach(l ->
+                l.backwardWeightUpdate(this)
+        );
+
+        applyParameterDeltas();
+    }
+
+    public void setEntropy(Activation act, double e) {
+        entropy[act.getId()] = e;
+    }
+
+    public boolean hasEntropy(Activation act) {
+        return !Double.isNaN(entropy[act.getId()]);
+    }
+
+    public double getEntropy(Activation act) {
+        double e = entropy[act.getId()];
+        return Double.isNaN(e) ? 0.0 : e;
+    }
+
+    /**
+     * The gradient of an activation is its own entropy plus the contributions of its trainable input links.
+     * Gradients of the input activations a link depends on are computed on demand.
+     */
+    public double getGradient(Activation act) {
+        int id = act.getId();
+        if(gradientState[id] == DONE)
+            return gradient[id];
+
+        if(gradientState[id] == IN_PROGRESS)
+            throw new IllegalStateException("Cyclic gradient dependency at activation " + act.toKeyString());
+
+        gradientState[id] = IN_PROGRESS;
+
+        Stream<Link> inputLinks = act.getInputLinks();
+        double g = getEntropy(act) +
+                inputLinks
+                        .filter(BackwardPass::isTrainable)
+                        .mapToDouble(l -> l.backwardGradient(this))
+                        .sum();
+
+        gradient[id] = g;
+        gradientState[id] = DONE;
+        return g;
+    }
+
+    public void addUpdateValue(Activation act, double u) {
+        int id = act.getId();
+        updateValue[id] = hasUpdateValue(act) ?
+                updateValue[id] + u :
+                u;
+    }
+
+    public boolean hasUpdateValue(Activation act) {
+        return !Double.isNaN(updateValue[act.getId()]);
+    }
+
+    public double getUpdateValue(Activation act) {
+        double u = updateValue[act.getId()];
+        return Double.isNaN(u) ? 0.0 : u;
+    }
+
+    public void addParameterDelta(Field f, double delta) {
+        if(delta == 0.0)
+            return;
+
+        Integer i = parameterIndex.get(f);
+        if(i == null) {
+            i = parameterIndex.size();
+            parameterIndex.put(f, i);
+
+            if(i == parameters.length) {
+                parameters = Arrays.copyOf(parameters, i * 2);
+                parameterDeltas = Arrays.copyOf(parameterDeltas, i * 2);
+            }
+            parameters[i] = f;
+        }
+        parameterDeltas[i] += delta;
+    }
+
+    private void applyParameterDeltas() {
+        for(int i = 0; i < parameterIndex.size(); i++)
+            parameters[i].receiveUpdate(null, parameterDeltas[i]);
+    }
+}
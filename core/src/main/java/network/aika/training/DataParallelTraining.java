@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.training;
+
+import network.aika.MiniBatch;
+import network.aika.Model;
+import network.aika.elements.neurons.Neuron;
+import network.aika.elements.neurons.NeuronProvider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Data-parallel training across documents. The inputs are processed in rounds: in each round every worker
+ * thread processes up to mergeInterval documents. The weight, bias and synapse bias updates of the
+ * training phase are not applied to the model during a round, but are collected in delta buffers, so
+ * that all workers see the same consistent weights. At the end of a round the coordinator merges the
+ * buffers into the mini-batch of the model and applies them in one pass.
+ *
+ * The document processing callback is executed on the worker threads and has to create, process and
+ * disconnect its own document. With a single worker and synchronous merging the result is deterministic
+ * and equal to sequential processing with a mini-batch size of mergeInterval.
+ *
+ * The workers share the neurons and synapses of the model. The synapse maps of the neuron providers, the
+ * pre-activations of a neuron, the input synapse order of a conjunctive neuron and the model links of a
+ * field may be modified by several workers concurrently. The field links and activations of a thought are
+ * confined to the worker processing it. The model parameters and the mini-batch are only modified by the
+ * coordinator, after all workers of a round have finished.
+ *
+ * @author Lukas Molzberger
+ */
+public class DataParallelTraining<I> {
+
+    private final Model model;
+    private final int numberOfWorkers;
+    private final int mergeInterval;
+    private final MergeMode mergeMode;
+
+    public DataParallelTraining(Model model, int numberOfWorkers, int mergeInterval, MergeMode mergeMode) {
+        assert numberOfWorkers > 0 && mergeInterval > 0;
+
+        this.model = model;
+        this.numberOfWorkers = numberOfWorkers;
+        this.mergeInterval = mergeInterval;
+        this.mergeMode = mergeMode;
+    }
+
+    public void train(List<I> inputs, Consumer<I> processDocument) {
+        ExecutorService executor = Executors.newFixedThreadPool(numberOfWorkers);
+        try {
+            int roundSize = numberOfWorkers * mergeInterval;
+            for(int begin = 0; begin < inputs.size(); begin += roundSize)
+                processRound(
+                        executor,
+                        inputs.subList(begin, Math.min(begin + roundSize, inputs.size())),
+                        processDocument
+                );
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void processRound(ExecutorService executor, List<I> roundInputs, Consumer<I> processDocument) {
+        SharedDeltaBuffer sharedBuffer = mergeMode == MergeMode.HOGWILD ?
+                new SharedDeltaBuffer() :
+                null;
+
+        List<DeltaBuffer> buffers = new ArrayList<>();
+        List<Future<?>> futures = new ArrayList<>();
+        for(int begin = 0; begin < roundInputs.size(); begin += mergeInterval) {
+            List<I> workerInputs = roundInputs.subList(begin, Math.min(begin + mergeInterval, roundInputs.size()));
+            DeltaBuffer buffer = sharedBuffer != null ?
+                    sharedBuffer :
+                    new LocalDeltaBuffer();
+
+            buffers.add(buffer);
+            futures.add(
+                    executor.submit(() ->
+                            processWorkerInputs(buffer, workerInputs, processDocument)
+                    )
+            );
+        }
+
+        for(Future<?> f: futures) {
+            try {
+                f.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e.getCause());
+            }
+        }
+
+        merge(sharedBuffer != null ? List.of(sharedBuffer) : buffers);
+    }
+
+    private void processWorkerInputs(DeltaBuffer buffer, List<I> workerInputs, Consumer<I> processDocument) {
+        MiniBatch miniBatch = model.getMiniBatch();
+        model.registerWorkerThread();
+        miniBatch.setDeltaBuffer(buffer);
+        try {
+            workerInputs.forEach(processDocument);
+        } finally {
+            miniBatch.setDeltaBuffer(null);
+            model.unregisterWorkerThread();
+        }
+    }
+
+    private void merge(List<DeltaBuffer> buffers) {
+        MiniBatch miniBatch = model.getMiniBatch();
+        buffers.forEach(miniBatch::merge);
+        miniBatch.apply();
+
+        // There is no thought that could process the save steps of the merge.
+        model.getActiveNeurons().stream()
+                .map(NeuronProvider::getIfNotSuspended)
+                .filter(Objects::nonNull)
+                .filter(Neuron::isModified)
+                .forEach(n -> n.getProvider().save());
+    }
+}
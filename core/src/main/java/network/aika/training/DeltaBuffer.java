@@ -14,34 +14,23 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-package network.aika.text;
+package network.aika.training;
 
-import network.aika.elements.activations.TokenActivation;
+import network.aika.fields.BatchedSumField;
+
+import java.util.function.ObjDoubleConsumer;
 
 /**
+ * Collects the parameter updates emitted by the training phase of one or more worker threads.
  *
  * @author Lukas Molzberger
  */
-public class PositionKey {
-
-    private int tokenPosition;
-    private int actId;
-
-    public PositionKey(int tokenPosition, int actId) {
-        this.tokenPosition = tokenPosition;
-        this.actId = actId;
-    }
-
-    public PositionKey(TokenActivation tokenAct) {
-        this.tokenPosition = tokenAct.getTokenPos();
-        this.actId = tokenAct.getId();
-    }
+public interface DeltaBuffer {
 
-    public int getTokenPosition() {
-        return tokenPosition;
-    }
+    void add(BatchedSumField f, double u);
 
-    public int getActId() {
-        return actId;
-    }
+    /**
+     * Hands all collected deltas over to the consumer and clears the buffer.
+     */
+    void drain(ObjDoubleConsumer<BatchedSumField> consumer);
 }
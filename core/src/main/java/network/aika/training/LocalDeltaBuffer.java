@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.training;
+
+import network.aika.fields.BatchedSumField;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ObjDoubleConsumer;
+
+/**
+ * Delta buffer that is confined to a single worker thread. The deltas are drained in the order in which
+ * the fields were first updated, which keeps the merge deterministic.
+ *
+ * @author Lukas Molzberger
+ */
+public class LocalDeltaBuffer implements DeltaBuffer {
+
+    private final Map<BatchedSumField, double[]> deltas = new LinkedHashMap<>();
+
+    @Override
+    public void add(BatchedSumField f, double u) {
+        deltas.computeIfAbsent(f, k -> new double[1])[0] += u;
+    }
+
+    @Override
+    public void drain(ObjDoubleConsumer<BatchedSumField> consumer) {
+        deltas.forEach((f, d) ->
+                consumer.accept(f, d[0])
+        );
+        deltas.clear();
+    }
+}
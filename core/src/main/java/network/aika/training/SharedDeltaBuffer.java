@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.training;
+
+import network.aika.fields.BatchedSumField;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.function.ObjDoubleConsumer;
+
+/**
+ * Hogwild-style delta buffer that is shared by all worker threads. The deltas are accumulated lock-free
+ * in atomic double adders. The summation order, and therefore the result, is not deterministic.
+ *
+ * @author Lukas Molzberger
+ */
+public class SharedDeltaBuffer implements DeltaBuffer {
+
+    private final Map<BatchedSumField, DoubleAdder> deltas = new ConcurrentHashMap<>();
+
+    @Override
+    public void add(BatchedSumField f, double u) {
+        deltas.computeIfAbsent(f, k -> new DoubleAdder())
+                .add(u);
+    }
+
+    @Override
+    public void drain(ObjDoubleConsumer<BatchedSumField> consumer) {
+        deltas.forEach((f, d) ->
+                consumer.accept(f, d.sum())
+        );
+        deltas.clear();
+    }
+}
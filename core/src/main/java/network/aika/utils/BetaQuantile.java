@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.utils;
+
+import org.apache.commons.math3.distribution.BetaDistribution;
+
+/**
+ * Computes quantiles of the Beta distribution, which are used as probability bounds for the surprisal.
+ *
+ * EXACT solves the inverse cumulative probability numerically on every call. CACHED does the same, but
+ * remembers the results for integer shape parameters up to MAX_CACHED_SHAPE in a fixed size, direct-mapped
+ * table, so that a colliding pair of shape parameters simply replaces the previous entry. APPROXIMATED additionally
+ * replaces the numerical solve by a closed form for large shape parameters: the normal approximation of the
+ * Beta distribution with a Cornish-Fisher correction for its skewness and kurtosis. Small or fractional
+ * shape parameters fall back to the cached or exact solution.
+ *
+ * @author Lukas Molzberger
+ */
+public enum BetaQuantile {
+    EXACT,
+    CACHED,
+    APPROXIMATED;
+
+    public static final int MAX_CACHED_SHAPE = 1 << 16;
+
+    /**
+     * Smallest shape parameter for which the approximation is used. Above it the absolute error of the
+     * 95%-quantile stays below 1e-4 and the error of the resulting surprisal below 2e-4.
+     */
+    public static final double MIN_APPROXIMATED_SHAPE = 30.0;
+
+    private static final int CACHE_BITS = 16;
+
+    /**
+     * Entries are immutable and replaced as a whole, so that concurrent readers never see a partially
+     * written entry.
+     */
+    private static final CacheEntry[] cache = new CacheEntry[1 << CACHE_BITS];
+
+    private static class CacheEntry {
+        final long key;
+        final double threshold;
+        final double value;
+
+        CacheEntry(long key, double threshold, double value) {
+            this.key = key;
+            this.threshold = threshold;
+            this.value = value;
+        }
+    }
+
+    public double inverseCumulativeProbability(double alpha, double beta, double threshold) {
+        if(this == EXACT)
+            return exact(alpha, beta, threshold);
+
+        if(alpha == 1.0)
+            return 1.0 - Math.pow(1.0 - threshold, 1.0 / beta);
+
+        if(beta == 1.0)
+            return Math.pow(threshold, 1.0 / alpha);
+
+        if(this == APPROXIMATED && Math.min(alpha, beta) >= MIN_APPROXIMATED_SHAPE)
+            return approximate(alpha, beta, threshold);
+
+        if(!isCacheable(alpha, beta))
+            return exact(alpha, beta, threshold);
+
+        long key = ((long) alpha << 32) | (long) beta;
+        int slot = slot(key);
+
+        CacheEntry e = cache[slot];
+        if(e != null && e.key == key && e.threshold == threshold)
+            return e.value;
+
+        double v = exact(alpha, beta, threshold);
+        cache[slot] = new CacheEntry(key, threshold, v);
+        return v;
+    }
+
+    /**
+     * The shape parameters are regular, so the key is mixed with the finalizer of MurmurHash3 before
+     * its upper bits are used as the slot.
+     */
+    private static int slot(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return (int) (h >>> (Long.SIZE - CACHE_BITS));
+    }
+
+    public static double exact(double alpha, double beta, double threshold) {
+        return new BetaDistribution(alpha, beta)
+                .inverseCumulativeProbability(threshold);
+    }
+
+    public static double approximate(double alpha, double beta, double threshold) {
+        double n = alpha + beta;
+        double mean = alpha / n;
+        double sd = Math.sqrt(alpha * beta / (n * n * (n + 1.0)));
+
+        double skew = 2.0 * (beta - alpha) * Math.sqrt(n + 1.0) / ((n + 2.0) * Math.sqrt(alpha * beta));
+        double exKurt = 6.0 * ((alpha - beta) * (alpha - beta) * (n + 1.0) - alpha * beta * (n + 2.0)) /
+                (alpha * beta * (n + 2.0) * (n + 3.0));
+
+        double z = normalQuantile(threshold);
+        double z2 = z * z;
+        double w = z +
+                (z2 - 1.0) * skew / 6.0 +
+                (z2 * z - 3.0 * z) * exKurt / 24.0 -
+                (2.0 * z2 * z - 5.0 * z) * skew * skew / 36.0;
+
+        return Math.min(1.0, Math.max(0.0, mean + w * sd));
+    }
+
+    /**
+     * Rational approximation of the standard normal quantile by Acklam, relative error below 1.2e-9.
+     */
+    public static double normalQuantile(double p) {
+        double q;
+        if(p < 0.02425) {
+            q = Math.sqrt(-2.0 * Math.log(p));
+            return (((((-7.784894002430293e-03 * q - 3.223964580411365e-01) * q - 2.400758277161838e+00) * q - 2.549732539343734e+00) * q + 4.374664141464968e+00) * q + 2.938163982698783e+00) /
+                    ((((7.784695709041462e-03 * q + 3.224671290700398e-01) * q + 2.445134137142996e+00) * q + 3.754408661907416e+00) * q + 1.0);
+        }
+        if(p > 1.0 - 0.02425)
+            return -normalQuantile(1.0 - p);
+
+        q = p - 0.5;
+        double r = q * q;
+        return (((((-3.969683028665376e+01 * r + 2.209460984245205e+02) * r - 2.759285104469687e+02) * r + 1.383577518672690e+02) * r - 3.066479806614716e+01) * r + 2.506628277459239e+00) * q /
+                (((((-5.447609879822406e+01 * r + 1.615858368580409e+02) * r - 1.556989798598866e+02) * r + 6.680131188771972e+01) * r - 1.328068155288572e+01) * r + 1.0);
+    }
+
+    private static boolean isCacheable(double alpha, double beta) {
+        return alpha == Math.rint(alpha) &&
+                beta == Math.rint(beta) &&
+                alpha >= 0.0 && alpha <= MAX_CACHED_SHAPE &&
+                beta >= 0.0 && beta <= MAX_CACHED_SHAPE;
+    }
+}
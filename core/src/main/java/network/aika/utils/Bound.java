@@ -1,7 +1,5 @@
 package network.aika.utils;
 
-import org.apache.commons.math3.distribution.BetaDistribution;
-
 public enum Bound {
     UPPER,
     LOWER;
@@ -9,25 +7,23 @@ public enum Bound {
     public static double BETA_THRESHOLD = 0.95;
 
     public double probability(double f, double n) {
-        assert n > 0.0;
-
-        BetaDistribution dist;
+        return probability(f, n, BetaQuantile.CACHED);
+    }
 
-        if(this == UPPER) {
-            dist = new BetaDistribution(
-                    f + 1,
-                    (n - f) + 1
-            );
-        } else {
-            dist = new BetaDistribution(
-                    (n - f) + 1,
-                    f + 1
-            );
-        }
+    public double probability(double f, double n, BetaQuantile betaQuantile) {
+        assert n > 0.0;
 
-        double p = dist.inverseCumulativeProbability(
-                BETA_THRESHOLD
-        );
+        double p = this == UPPER ?
+                betaQuantile.inverseCumulativeProbability(
+                        f + 1,
+                        (n - f) + 1,
+                        BETA_THRESHOLD
+                ) :
+                betaQuantile.inverseCumulativeProbability(
+                        (n - f) + 1,
+                        f + 1,
+                        BETA_THRESHOLD
+                );
 
         return this == UPPER ? p : 1.0 - p;
     }
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.visitor.linking;
+
+import network.aika.elements.activations.Activation;
+import network.aika.elements.links.Link;
+import network.aika.elements.synapses.ConjunctiveSynapse;
+import network.aika.elements.synapses.Synapse;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps track of the pairs of input links that share the same output activation. An entry
+ * (synA, synB, iActA, iActB) exists as soon as some activation has an input link from iActA via synA
+ * and an input link from iActB via synB. The index is maintained whenever an input link is linked or
+ * unlinked on its output activation. Since the same pair might occur on several output activations, the
+ * pairs are reference counted. This allows the latent linking to check for an already existing
+ * latent activation in constant time.
+ *
+ * Only the pairs that the latent linking of conjunctive neurons queries are recorded, i.e. pairs of
+ * conjunctive synapses that are not feedback synapses. Other pairs need to be checked by scanning the
+ * links, see {@link #isIndexed(Synapse, Synapse)}.
+ *
+ * @author Lukas Molzberger
+ */
+public class LatentActivationIndex {
+
+    private final Map<Key, Integer> pairs = new HashMap<>();
+
+    public static boolean isIndexed(Synapse synA, Synapse synB) {
+        return isIndexed(synA) && isIndexed(synB);
+    }
+
+    private static boolean isIndexed(Synapse s) {
+        return s instanceof ConjunctiveSynapse && !s.isFeedbackSynapse();
+    }
+
+    private static boolean isIndexed(Link l) {
+        return l.getInput() != null && isIndexed(l.getSynapse());
+    }
+
+    public boolean exists(Synapse synA, Synapse synB, Activation iActA, Activation iActB) {
+        assert isIndexed(synA, synB);
+        return pairs.containsKey(new Key(synA, synB, iActA, iActB));
+    }
+
+    public void add(Link l, Collection<Link> inputLinks) {
+        if(!isIndexed(l))
+            return;
+
+        for(Link il: inputLinks) {
+            if(il != l && isIndexed(il))
+                pairs.merge(new Key(l.getSynapse(), il.getSynapse(), l.getInput(), il.getInput()), 1, Integer::sum);
+        }
+    }
+
+    public void remove(Link l, Collection<Link> inputLinks) {
+        if(!isIndexed(l))
+            return;
+
+        for(Link il: inputLinks) {
+            if(il != l && isIndexed(il))
+                pairs.computeIfPresent(
+                        new Key(l.getSynapse(), il.getSynapse(), l.getInput(), il.getInput()),
+                        (k, count) -> count > 1 ? count - 1 : null
+                );
+        }
+    }
+
+    public int size() {
+        return pairs.size();
+    }
+
+    /**
+     * The pair is unordered, the key is therefore normalized by the activation ids and, for the same
+     * activation, by the ids of the input neurons of the synapses.
+     */
+    private static class Key {
+
+        private final Synapse synA;
+        private final Synapse synB;
+        private final int actIdA;
+        private final int actIdB;
+
+        Key(Synapse synA, Synapse synB, Activation iActA, Activation iActB) {
+            if(isOrdered(synA, synB, iActA.getId(), iActB.getId())) {
+                this.synA = synA;
+                this.synB = synB;
+                this.actIdA = iActA.getId();
+                this.actIdB = iActB.getId();
+            } else {
+                this.synA = synB;
+                this.synB = synA;
+                this.actIdA = iActB.getId();
+                this.actIdB = iActA.getId();
+            }
+        }
+
+        private static boolean isOrdered(Synapse synA, Synapse synB, int actIdA, int actIdB) {
+            if(actIdA != actIdB)
+                return actIdA < actIdB;
+
+            return synA.getPInput().getId() <= synB.getPInput().getId();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return actIdA == k.actIdA &&
+                    actIdB == k.actIdB &&
+                    synA == k.synA &&
+                    synB == k.synB;
+        }
+
+        @Override
+        public int hashCode() {
+            int h = 31 * actIdA + actIdB;
+            h = 31 * h + System.identityHashCode(synA);
+            return 31 * h + System.identityHashCode(synB);
+        }
+    }
+}
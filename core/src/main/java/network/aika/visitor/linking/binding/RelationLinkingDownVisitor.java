@@ -47,11 +47,11 @@ public class RelationLinkingDownVisitor extends BindingDownVisitor {
     }
 
     public void expandRelations(TokenActivation origin) {
-        getRelation().getInput()
-                .evaluateLatentRelation(origin, relationDir)
-                .forEach(relTokenAct ->
-                        up(origin, relTokenAct)
-                );
+        TokenActivation[] relTokenActs = getRelation().getInput()
+                .evaluateLatentRelation(origin, relationDir);
+
+        for(TokenActivation relTokenAct: relTokenActs)
+            up(origin, relTokenAct);
     }
 
     private void up(TokenActivation origin, TokenActivation relOrigin) {
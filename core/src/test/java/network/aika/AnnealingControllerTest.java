@@ -0,0 +1,208 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.elements.activations.Activation;
+import network.aika.elements.activations.TokenActivation;
+import network.aika.elements.neurons.InhibitoryNeuron;
+import network.aika.steps.thought.AnnealingController;
+import network.aika.steps.thought.AnnealingController.ScheduleEntry;
+import network.aika.steps.thought.AnnealingController.State;
+import network.aika.text.Document;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static network.aika.TestHelper.initPatternTheDog;
+import static network.aika.TestUtils.*;
+import static network.aika.elements.neurons.ActivationFunction.RECTIFIED_HYPERBOLIC_TANGENT;
+import static network.aika.steps.Phase.INFERENCE;
+
+/**
+ *
+ * @author Lukas Molzberger
+ */
+public class AnnealingControllerTest {
+
+    private static final double STEP_SIZE = 0.05;
+
+    @Test
+    public void testStepDoubling() {
+        List<ScheduleEntry> schedule = anneal(new LinearNet(10.0, -10.5));
+
+        double expectedScale = 1.0;
+        for(ScheduleEntry e: schedule.subList(0, 4)) {
+            Assertions.assertEquals(0, e.getFlips());
+            Assertions.assertEquals(expectedScale, e.getStepScale());
+            Assertions.assertEquals(getStep(e), e.getTo() - e.getFrom(), 1e-9);
+            expectedScale *= 2.0;
+        }
+    }
+
+    @Test
+    public void testClippingToPredictedFlip() {
+        LinearNet n = new LinearNet(1.0, -4.0);
+        List<ScheduleEntry> schedule = anneal(n);
+
+        ScheduleEntry clipped = schedule.stream()
+                .filter(e -> e.getTo() - e.getFrom() < getStep(e) - 1e-9)
+                .findFirst()
+                .get();
+
+        Assertions.assertEquals(0.25, clipped.getTo(), 0.001);
+        Assertions.assertTrue(n.getState(clipped.getFrom()).isFired());
+        Assertions.assertFalse(n.getState(clipped.getTo()).isFired());
+    }
+
+    @Test
+    public void testStepHalvingAfterFlips() {
+        List<ScheduleEntry> schedule = anneal(
+                new LinearNet(3.0, -10.0),
+                new LinearNet(3.1, -10.0)
+        );
+
+        List<ScheduleEntry> flipped = schedule.stream()
+                .filter(e -> e.getFlips() > 0)
+                .collect(Collectors.toList());
+
+        Assertions.assertEquals(2, flipped.size());
+        Assertions.assertEquals(0.5, flipped.get(0).getStepScale());
+        Assertions.assertEquals(0.25, flipped.get(1).getStepScale());
+        Assertions.assertEquals(0.31, flipped.get(0).getTo(), 0.001);
+    }
+
+    @Test
+    public void testEarlyJumpToOne() {
+        List<ScheduleEntry> schedule = anneal(
+                new LinearNet(3.0, -1.0),
+                new LinearNet(-1.0, -5.0)
+        );
+
+        Assertions.assertEquals(1, schedule.size());
+        Assertions.assertTrue(schedule.get(0).isStable());
+        Assertions.assertEquals(1.0, schedule.get(0).getTo());
+
+        schedule = anneal(new LinearNet(1.0, -4.0));
+
+        ScheduleEntry last = schedule.get(schedule.size() - 1);
+        Assertions.assertTrue(last.isStable());
+        Assertions.assertTrue(last.getFrom() < 0.5);
+        Assertions.assertEquals(1.0, last.getTo());
+    }
+
+    @Test
+    public void testAdaptiveScheduleMatchesFixedSchedule() {
+        Thought adaptive = processCompetingPatterns(true);
+        Thought fixed = processCompetingPatterns(false);
+
+        Assertions.assertTrue(adaptive.getNegativeFeedbackLinks().findAny().isPresent());
+        Assertions.assertTrue(
+                adaptive.getAnnealingController().getSchedule().stream()
+                        .anyMatch(e -> e.getFlips() > 0)
+        );
+        Assertions.assertEquals(1.0, adaptive.getAnnealing().getCurrentValue());
+        Assertions.assertEquals(1.0, fixed.getAnnealing().getCurrentValue());
+
+        Assertions.assertEquals(getFiredSet(fixed), getFiredSet(adaptive));
+    }
+
+    private static Thought processCompetingPatterns(boolean adaptiveAnnealing) {
+        Model m = new Model();
+
+        InhibitoryNeuron inhibNThe = new InhibitoryNeuron()
+                .init(m, "I-the");
+
+        InhibitoryNeuron inhibNDog = new InhibitoryNeuron()
+                .init(m, "I-dog");
+
+        initPatternTheDog(m, inhibNThe, inhibNDog, 1);
+        initPatternTheDog(m, inhibNThe, inhibNDog, 3);
+
+        Document doc = new Document(m, "the dog and the cat");
+        doc.setConfig(
+                getConfig()
+                        .setInferenceOnly(true)
+                        .setAdaptiveAnnealingEnabled(adaptiveAnnealing)
+        );
+
+        List<TokenActivation> tokenActs = new ArrayList<>();
+        int i = 0;
+        int pos = 0;
+        for(String t: List.of("the", "dog", "and", "the", "cat")) {
+            int j = i + t.length();
+            tokenActs.add(addToken(m, doc, t, pos++, i, j));
+            i = j + 1;
+        }
+
+        for(TokenActivation tAct: tokenActs) {
+            tAct.setNet(10.0);
+            doc.process(INFERENCE);
+        }
+
+        doc.anneal();
+        return doc;
+    }
+
+    private static List<String> getFiredSet(Thought t) {
+        return t.getActivations().stream()
+                .filter(Activation::isFired)
+                .map(act -> act.getLabel() + " " + act.getRange())
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private static double getStep(ScheduleEntry e) {
+        return e.getStepScale() * STEP_SIZE / RECTIFIED_HYPERBOLIC_TANGENT.outerGrad(e.getFrom());
+    }
+
+    private static List<ScheduleEntry> anneal(LinearNet... nets) {
+        AnnealingController ac = new AnnealingController();
+
+        double a = 0.0;
+        while(a < 1.0) {
+            Map<Object, State> states = new IdentityHashMap<>();
+            for(LinearNet n: nets)
+                states.put(n, n.getState(a));
+
+            a = ac.nextAnnealValue(a, STEP_SIZE, states);
+        }
+        return ac.getSchedule();
+    }
+
+    /**
+     * An activation whose net decreases linearly with the annealing value.
+     */
+    private static class LinearNet {
+        final double net;
+        final double slope;
+
+        LinearNet(double net, double slope) {
+            this.net = net;
+            this.slope = slope;
+        }
+
+        State getState(double a) {
+            double n = net + slope * a;
+            return new State(n > 0.0, n, slope);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.utils.BetaQuantile;
+import network.aika.utils.Bound;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import static network.aika.utils.Bound.BETA_THRESHOLD;
+import static network.aika.utils.Utils.surprisal;
+
+/**
+ * Accuracy of the cached and the approximated Beta-quantile probability bounds.
+ *
+ * @author Lukas Molzberger
+ */
+public class BetaQuantileTest {
+
+    private static final int MAX_N = 1000;
+    private static final int N_STEP = 5;
+    private static final int F_STEP = 11;
+
+    @Test
+    public void testCachedMatchesExact() {
+        for(int n = 1; n < 100; n++) {
+            for(int f = 0; f <= n; f++) {
+                Assertions.assertEquals(
+                        BetaQuantile.exact(f + 1, n - f + 1, BETA_THRESHOLD),
+                        BetaQuantile.CACHED.inverseCumulativeProbability(f + 1, n - f + 1, BETA_THRESHOLD),
+                        1e-9
+                );
+            }
+        }
+    }
+
+    @Test
+    public void testCachedAcrossThresholds() {
+        for(double threshold: new double[] {BETA_THRESHOLD, 0.5, BETA_THRESHOLD}) {
+            Assertions.assertEquals(
+                    BetaQuantile.exact(3, 7, threshold),
+                    BetaQuantile.CACHED.inverseCumulativeProbability(3, 7, threshold),
+                    1e-9
+            );
+        }
+    }
+
+    @Test
+    public void testApproximationError() {
+        double maxError = 0.0;
+        double maxSurprisalError = 0.0;
+        for(int n = 1; n < MAX_N; n += N_STEP) {
+            for(int f = 0; f <= n; f += F_STEP) {
+                double exact = Bound.UPPER.probability(f, n, BetaQuantile.EXACT);
+                double approx = Bound.UPPER.probability(f, n, BetaQuantile.APPROXIMATED);
+
+                maxError = Math.max(maxError, Math.abs(exact - approx));
+                maxSurprisalError = Math.max(maxSurprisalError, Math.abs(surprisal(exact) - surprisal(approx)));
+            }
+        }
+
+        Assertions.assertTrue(maxError < 1e-4);
+        Assertions.assertTrue(maxSurprisalError < 2e-4);
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.compiled.CompiledModel;
+import network.aika.elements.neurons.BindingNeuron;
+import network.aika.elements.neurons.Neuron;
+import network.aika.elements.neurons.NeuronProvider;
+import network.aika.elements.neurons.TokenNeuron;
+import network.aika.elements.synapses.InputPatternSynapse;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static network.aika.TestHelper.initPatternTheCat;
+import static network.aika.TestUtils.*;
+import static network.aika.elements.neurons.SuspensionMode.SAVE;
+
+/**
+ *
+ * @author Lukas Molzberger
+ */
+public class CompiledModelTest {
+
+    @Test
+    public void testCompileReachableSubset() {
+        Model m = new Model();
+        initPatternTheCat(m, null, null, 0);
+
+        TokenNeuron theIN = lookupToken(m, "the");
+        Neuron theBN = m.getActiveNeurons().stream()
+                .map(p -> p.getNeuron())
+                .filter(n -> "the (the cat)".equals(n.getLabel()))
+                .findAny()
+                .get();
+
+        CompiledModel cm = CompiledModel.compile(m, List.of(theIN));
+        int theINIndex = cm.getNeuronIndex(theIN.getId());
+        int theBNIndex = cm.getNeuronIndex(theBN.getId());
+        Assertions.assertTrue(theINIndex >= 0);
+        Assertions.assertTrue(theBNIndex >= 0);
+        Assertions.assertEquals(theBN.getCurrentCompleteBias(), cm.getCompleteBias(theBNIndex), 0.0001);
+
+        int s = cm.getSynapseIndex(theINIndex, theBNIndex);
+        Assertions.assertEquals(10.0, cm.getWeight(s), 0.0001);
+        Assertions.assertEquals(theINIndex, cm.getSynapseInput(s));
+        Assertions.assertEquals(theBNIndex, cm.getSynapseOutput(s));
+        Assertions.assertEquals(CompiledModel.FEED_FORWARD, cm.getSynapseKind(s));
+
+        // Neurons that are not reachable from the input are left out.
+        Assertions.assertTrue(cm.getNeuronIndex(lookupToken(m, "cat").getId()) < 0);
+    }
+
+    @Test
+    public void testCompileWithSuspendedNeurons() {
+        Model m = new Model();
+
+        TokenNeuron inN = new TokenNeuron().init(m, "IN");
+        NeuronProvider in = inN.getProvider();
+        List<NeuronProvider> outs = new ArrayList<>();
+        List<Double> completeBiases = new ArrayList<>();
+        for(int i = 0; i < 3; i++) {
+            BindingNeuron outN = new BindingNeuron().init(m, "OUT " + i);
+            setBias(outN, 1.0);
+
+            new InputPatternSynapse()
+                    .setWeight(10.0)
+                    .init(inN, outN)
+                    .adjustBias();
+
+            outs.add(outN.getProvider());
+            completeBiases.add(outN.getCurrentCompleteBias());
+        }
+
+        inN = null;
+        m.suspendAll(SAVE);
+
+        // Only IN is loaded again, together with its synapses.
+        in.getNeuron().getOutputSynapses();
+        int numRegistered = m.providers.size();
+
+        CompiledModel cm = CompiledModel.compile(m);
+
+        Assertions.assertEquals(4, cm.getNumberOfNeurons());
+        Assertions.assertEquals(3, cm.getNumberOfSynapses());
+        Assertions.assertEquals(numRegistered, m.providers.size());
+
+        int inIndex = cm.getNeuronIndex(in.getId());
+        Assertions.assertEquals(3, cm.getNumberOfOutputSynapses(inIndex));
+        for(int i = 0; i < outs.size(); i++) {
+            NeuronProvider out = outs.get(i);
+            NeuronProvider registered = m.providers.get(out.getId());
+            Assertions.assertTrue(registered == null || registered.isSuspended());
+
+            int outIndex = cm.getNeuronIndex(out.getId());
+            Assertions.assertEquals("OUT " + i, cm.getLabel(outIndex));
+            Assertions.assertEquals(completeBiases.get(i), cm.getCompleteBias(outIndex), 0.0001);
+            Assertions.assertEquals(1, cm.getNumberOfInputSynapses(outIndex));
+
+            int s = cm.getInputSynapse(outIndex, 0);
+            Assertions.assertEquals(inIndex, cm.getSynapseInput(s));
+            Assertions.assertEquals(10.0, cm.getWeight(s), 0.0001);
+        }
+    }
+}
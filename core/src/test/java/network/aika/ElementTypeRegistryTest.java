@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.elements.neurons.BindingNeuron;
+import network.aika.elements.neurons.PatternNeuron;
+import network.aika.elements.synapses.InputPatternSynapse;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+
+import static network.aika.ElementTypeRegistry.UNREGISTERED_TYPE_ID;
+
+/**
+ *
+ * @author Lukas Molzberger
+ */
+public class ElementTypeRegistryTest {
+
+    public static class CustomNeuron extends PatternNeuron {
+    }
+
+    @Test
+    public void testBuiltInTypes() throws IOException {
+        ElementTypeRegistry r = new ElementTypeRegistry();
+
+        Assertions.assertTrue(r.getTypeId(BindingNeuron.class) >= 0);
+        Assertions.assertTrue(r.getTypeId(InputPatternSynapse.class) >= 0);
+
+        byte[] data = write(r, BindingNeuron.class);
+        Assertions.assertEquals(2, data.length);
+        Assertions.assertTrue(read(r, data) instanceof BindingNeuron);
+    }
+
+    @Test
+    public void testCustomTypes() throws IOException {
+        ElementTypeRegistry r = new ElementTypeRegistry();
+
+        Assertions.assertEquals(UNREGISTERED_TYPE_ID, r.getTypeId(CustomNeuron.class));
+        byte[] unregistered = write(r, CustomNeuron.class);
+        Assertions.assertTrue(read(r, unregistered) instanceof CustomNeuron);
+        Assertions.assertEquals(UNREGISTERED_TYPE_ID, r.getTypeId(CustomNeuron.class));
+
+        short id = r.register(CustomNeuron.class, CustomNeuron::new);
+        Assertions.assertEquals(id, r.getTypeId(CustomNeuron.class));
+
+        byte[] registered = write(r, CustomNeuron.class);
+        Assertions.assertEquals(2, registered.length);
+        Assertions.assertTrue(read(r, registered) instanceof CustomNeuron);
+    }
+
+    private static byte[] write(ElementTypeRegistry r, Class<?> clazz) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        r.writeType(new DataOutputStream(baos), clazz);
+        return baos.toByteArray();
+    }
+
+    private static Object read(ElementTypeRegistry r, byte[] data) throws IOException {
+        return r.readInstance(new DataInputStream(new ByteArrayInputStream(data)));
+    }
+}
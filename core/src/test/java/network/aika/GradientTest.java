@@ -16,13 +16,27 @@
  */
 package network.aika;
 
+import network.aika.elements.neurons.Neuron;
+import network.aika.elements.neurons.NeuronProvider;
 import network.aika.elements.neurons.PatternNeuron;
+import network.aika.elements.synapses.ConjunctiveSynapse;
+import network.aika.elements.synapses.Synapse;
 import network.aika.text.Document;
+import network.aika.training.DataParallelTraining;
+import network.aika.training.MergeMode;
+import network.aika.training.TrainingBackend;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
 
+import static network.aika.TestHelper.initPatternTheCat;
 import static network.aika.TestUtils.*;
+import static network.aika.elements.neurons.SuspensionMode.SAVE;
 
 /**
  *
@@ -139,6 +153,157 @@ public class GradientTest {
         System.out.println();
     }
 
+    @Test
+    public void gradientWithDataParallelTraining() {
+        List<String> inputs = List.of("the cat", "the the cat", "cat the", "the cat cat");
+
+        Model sequential = new Model();
+        initPatternTheCat(sequential, null, null, 0);
+        inputs.forEach(txt ->
+                trainDoc(sequential, txt, 2)
+        );
+
+        Model parallel = new Model();
+        initPatternTheCat(parallel, null, null, 0);
+        new DataParallelTraining<String>(parallel, 1, 2, MergeMode.SYNCHRONOUS)
+                .train(inputs, txt ->
+                        trainDoc(parallel, txt, 1)
+                );
+
+        Assertions.assertEquals(getParameters(sequential), getParameters(parallel));
+    }
+
+    @Test
+    public void gradientWithMultipleWorkers() {
+        List<String> inputs = List.of("the cat", "the the cat", "cat the", "the cat cat", "cat cat", "the cat the", "cat", "the");
+
+        Model sequential = new Model();
+        initPatternTheCat(sequential, null, null, 0);
+        inputs.forEach(txt ->
+                trainDoc(sequential, txt, getTrainingConfig().setLearnRate(-10.0).setMiniBatchSize(4))
+        );
+
+        Model untrained = new Model();
+        initPatternTheCat(untrained, null, null, 0);
+
+        List<Double> expected = getParameters(sequential);
+        Assertions.assertNotEquals(getParameters(untrained), expected);
+
+        for(MergeMode mode: MergeMode.values()) {
+            Model parallel = new Model();
+            initPatternTheCat(parallel, null, null, 0);
+            new DataParallelTraining<String>(parallel, 4, 1, mode)
+                    .train(inputs, txt ->
+                            trainDoc(parallel, txt, getTrainingConfig().setLearnRate(-10.0))
+                    );
+
+            List<Double> actual = getParameters(parallel);
+            Assertions.assertEquals(expected.size(), actual.size());
+            for(int i = 0; i < expected.size(); i++)
+                Assertions.assertEquals(expected.get(i), actual.get(i), 0.0000001, mode.name());
+        }
+    }
+
+    @Test
+    public void gradientWithMiniBatchAndSuspension() {
+        List<String> inputs = List.of("the cat", "the the cat", "cat the", "the cat cat");
+        Config c = getTrainingConfig()
+                .setLearnRate(-10.0)
+                .setMiniBatchSize(inputs.size() + 1);
+
+        Model inMemory = new Model();
+        initPatternTheCat(inMemory, null, null, 0);
+        inputs.forEach(txt ->
+                trainDoc(inMemory, txt, c)
+        );
+        Assertions.assertTrue(inMemory.getMiniBatch().getNumberOfPendingFields() > 0);
+        inMemory.getMiniBatch().apply();
+
+        Model suspended = new Model();
+        initPatternTheCat(suspended, null, null, 0);
+        inputs.forEach(txt ->
+                trainDoc(suspended, txt, c)
+        );
+        suspended.suspendAll(SAVE);
+        Assertions.assertEquals(0, suspended.getMiniBatch().getNumberOfPendingFields());
+        suspended.getMiniBatch().apply();
+
+        Assertions.assertEquals(getParameters(reactivateAll(inMemory)), getParameters(reactivateAll(suspended)));
+    }
+
+    private Model reactivateAll(Model m) {
+        m.suspendAll(SAVE);
+        m.getSuspensionCallback().getAllIds()
+                .forEach(id -> m.lookupNeuronProvider(id).getNeuron());
+        return m;
+    }
+
+    @Test
+    public void gradientWithBackwardPass() {
+        List<String> inputs = List.of("the cat", "the the cat", "cat the", "the cat cat");
+
+        Model fieldGraph = new Model();
+        initPatternTheCat(fieldGraph, null, null, 0);
+        inputs.forEach(txt ->
+                trainDoc(fieldGraph, txt, getTrainingConfig().setLearnRate(-10.0))
+        );
+
+        Model backwardPass = new Model();
+        initPatternTheCat(backwardPass, null, null, 0);
+        inputs.forEach(txt ->
+                trainDoc(backwardPass, txt, getTrainingConfig().setLearnRate(-10.0).setTrainingBackend(TrainingBackend.BACKWARD_PASS))
+        );
+
+        Model untrained = new Model();
+        initPatternTheCat(untrained, null, null, 0);
+
+        List<Double> expected = getParameters(fieldGraph);
+        List<Double> actual = getParameters(backwardPass);
+        Assertions.assertNotEquals(getParameters(untrained), expected);
+        Assertions.assertEquals(expected.size(), actual.size());
+        for(int i = 0; i < expected.size(); i++)
+            Assertions.assertEquals(expected.get(i), actual.get(i), 0.0001);
+    }
+
+    private Config getTrainingConfig() {
+        return getConfig()
+                .setAlpha(0.99)
+                .setLearnRate(-0.011)
+                .setTrainingEnabled(true);
+    }
+
+    private void trainDoc(Model m, String txt, int miniBatchSize) {
+        trainDoc(m, txt, getTrainingConfig().setMiniBatchSize(miniBatchSize));
+    }
+
+    private void trainDoc(Model m, String txt, Config c) {
+        Document doc = new Document(m, txt);
+        doc.setConfig(c);
+        processTokens(m, doc, Arrays.asList(txt.split(" ")));
+
+        doc.postProcessing();
+        doc.release();
+    }
+
+    private List<Double> getParameters(Model m) {
+        List<Double> params = new ArrayList<>();
+        m.getActiveNeurons().stream()
+                .map(NeuronProvider::getNeuron)
+                .sorted(Comparator.comparing(Neuron::getId))
+                .forEach(n -> {
+                    params.add(n.getBias().getCurrentValue());
+                    Stream<Synapse> inputSynapses = n.getInputSynapsesAsStream();
+                    inputSynapses
+                            .sorted(Comparator.comparing(s -> s.getPInput().getId()))
+                            .forEach(s -> {
+                                params.add(s.getWeight().getCurrentValue());
+                                if(s instanceof ConjunctiveSynapse)
+                                    params.add(((ConjunctiveSynapse) s).getSynapseBias().getCurrentValue());
+                            });
+                });
+        return params;
+    }
+
     private void processDoc(Model m, Document doc) {
         processTokens(m, doc, Arrays.asList(doc.getContent().split(" ")));
     }
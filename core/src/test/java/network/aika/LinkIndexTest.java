@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.elements.activations.Activation;
+import network.aika.elements.activations.LinkIndex;
+import network.aika.elements.links.Link;
+import network.aika.text.Document;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static network.aika.TestHelper.initPatternTheCat;
+import static network.aika.TestUtils.*;
+
+/**
+ *
+ * @author Lukas Molzberger
+ */
+public class LinkIndexTest {
+
+    private static final int NUMBER_OF_NEURONS = 4;
+    private static final int ACTS_PER_NEURON = 3;
+
+    private final Document doc = processDoc();
+
+    /**
+     * The links of a processed document, which serve as the values of the index.
+     */
+    private final List<Link> links = new ArrayList<>(doc.getArena().getLinks());
+
+    private static Document processDoc() {
+        Model m = new Model();
+        initPatternTheCat(m, null, null, 0);
+
+        Document doc = new Document(m, "the cat the cat");
+        doc.setConfig(getConfig().setInferenceOnly(true));
+        processTokens(m, doc, List.of("the", "cat", "the", "cat"));
+        return doc;
+    }
+
+    private Link getLink(int neuronId, int actId) {
+        return links.get(neuronId * ACTS_PER_NEURON + actId);
+    }
+
+    /**
+     * Inserts the entries in descending key order, so that every insertion shifts the existing entries.
+     */
+    private LinkIndex createIndex() {
+        Assertions.assertTrue(links.size() >= NUMBER_OF_NEURONS * ACTS_PER_NEURON);
+
+        LinkIndex idx = new LinkIndex();
+        for(int n = NUMBER_OF_NEURONS - 1; n >= 0; n--) {
+            for(int a = ACTS_PER_NEURON - 1; a >= 0; a--)
+                Assertions.assertNull(idx.put(n, a, getLink(n, a)));
+        }
+        return idx;
+    }
+
+    @Test
+    public void testGrowPastInitialCapacity() {
+        LinkIndex idx = createIndex();
+
+        Assertions.assertEquals(NUMBER_OF_NEURONS * ACTS_PER_NEURON, idx.size());
+        Assertions.assertEquals(
+                links.subList(0, NUMBER_OF_NEURONS * ACTS_PER_NEURON),
+                idx.values()
+        );
+        Assertions.assertEquals(idx.values(), idx.stream().collect(Collectors.toList()));
+
+        Link replaced = getLink(2, 1);
+        Assertions.assertSame(replaced, idx.put(2, 1, getLink(0, 0)));
+        Assertions.assertEquals(NUMBER_OF_NEURONS * ACTS_PER_NEURON, idx.size());
+    }
+
+    @Test
+    public void testLookupByNeuronId() {
+        LinkIndex idx = createIndex();
+
+        for(int n = 0; n < NUMBER_OF_NEURONS; n++)
+            Assertions.assertSame(getLink(n, 0), idx.get(n));
+
+        Assertions.assertNull(idx.get(-1));
+        Assertions.assertNull(idx.get(NUMBER_OF_NEURONS));
+        Assertions.assertNull(new LinkIndex().get(0));
+    }
+
+    @Test
+    public void testRangeQuery() {
+        LinkIndex idx = createIndex();
+
+        for(int n = 0; n < NUMBER_OF_NEURONS; n++) {
+            List<Link> expected = new ArrayList<>();
+            for(int a = 0; a < ACTS_PER_NEURON; a++)
+                expected.add(getLink(n, a));
+
+            Assertions.assertEquals(expected, idx.stream(n).collect(Collectors.toList()));
+        }
+        Assertions.assertEquals(0, idx.stream(NUMBER_OF_NEURONS).count());
+    }
+
+    @Test
+    public void testOutputLinksBySynapse() {
+        for(Activation<?> act: doc.getActivations()) {
+            for(Link l: act.getOutputLinks().collect(Collectors.toList())) {
+                List<Link> bySynapse = act.getOutputLinks(l.getSynapse())
+                        .collect(Collectors.toList());
+
+                Assertions.assertTrue(bySynapse.contains(l));
+                bySynapse.forEach(bl ->
+                        Assertions.assertSame(l.getSynapse(), bl.getSynapse())
+                );
+                Assertions.assertEquals(
+                        act.getOutputLinks()
+                                .filter(ol -> ol.getSynapse() == l.getSynapse())
+                                .count(),
+                        bySynapse.size()
+                );
+            }
+        }
+    }
+
+    @Test
+    public void testRemove() {
+        LinkIndex idx = createIndex();
+
+        Assertions.assertFalse(idx.remove(1, 0, getLink(1, 1)));
+        Assertions.assertFalse(idx.remove(1, ACTS_PER_NEURON, getLink(1, 0)));
+
+        Assertions.assertTrue(idx.remove(1, 0, getLink(1, 0)));
+        Assertions.assertFalse(idx.remove(1, 0, getLink(1, 0)));
+        Assertions.assertSame(getLink(1, 1), idx.get(1));
+        Assertions.assertEquals(NUMBER_OF_NEURONS * ACTS_PER_NEURON - 1, idx.size());
+
+        for(int n = 0; n < NUMBER_OF_NEURONS; n++) {
+            for(int a = 0; a < ACTS_PER_NEURON; a++)
+                idx.remove(n, a, getLink(n, a));
+        }
+        Assertions.assertTrue(idx.isEmpty());
+        Assertions.assertEquals(0, idx.stream().count());
+        Assertions.assertNull(idx.get(2));
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.elements.neurons.BindingNeuron;
+import network.aika.elements.neurons.OutputSynapseIndex;
+import network.aika.elements.neurons.TokenNeuron;
+import network.aika.elements.synapses.InputPatternSynapse;
+import org.junit.jupiter.api.Test;
+
+import static network.aika.TestUtils.setBias;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Lukas Molzberger
+ */
+public class OutputSynapseIndexTest {
+
+    @Test
+    public void testInvalidationIsLimitedToTheInputNeuron() {
+        Model m = new Model();
+
+        TokenNeuron inA = new TokenNeuron().init(m, "IN A");
+        TokenNeuron inB = new TokenNeuron().init(m, "IN B");
+        BindingNeuron outA = new BindingNeuron().init(m, "OUT A");
+        BindingNeuron outB = new BindingNeuron().init(m, "OUT B");
+        setBias(outA, 1.0);
+        setBias(outB, 1.0);
+
+        InputPatternSynapse sA = new InputPatternSynapse()
+                .setWeight(10.0)
+                .init(inA, outA);
+
+        new InputPatternSynapse()
+                .setWeight(10.0)
+                .init(inB, outB);
+
+        OutputSynapseIndex idxA = inA.getOutputSynapseIndex();
+        OutputSynapseIndex idxB = inB.getOutputSynapseIndex();
+        assertSame(idxA, inA.getOutputSynapseIndex());
+
+        sA.setWeight(5.0);
+        assertSame(idxB, inB.getOutputSynapseIndex());
+
+        idxA = inA.getOutputSynapseIndex();
+        assertEquals(6.0, idxA.getPropagateUpperBound(0), 0.0001);
+
+        setBias(outB, 2.0);
+        assertSame(idxA, inA.getOutputSynapseIndex());
+
+        idxB = inB.getOutputSynapseIndex();
+        assertEquals(12.0, idxB.getPropagateUpperBound(0), 0.0001);
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.elements.neurons.BindingNeuron;
+import network.aika.elements.neurons.TokenNeuron;
+import network.aika.elements.synapses.ConjunctiveSynapse;
+import network.aika.elements.synapses.InputPatternSynapse;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static network.aika.TestUtils.setBias;
+import static network.aika.direction.Direction.INPUT;
+import static network.aika.direction.Direction.OUTPUT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ *
+ * @author Lukas Molzberger
+ */
+public class SumOfLowerWeightsTest {
+
+    @Test
+    public void testIncrementalUpdateAfterRebuild() {
+        Model m = new Model();
+
+        BindingNeuron out = new BindingNeuron().init(m, "OUT");
+        setBias(out, -5.0);
+
+        List<ConjunctiveSynapse> syns = new ArrayList<>();
+        for(int i = 1; i <= 4; i++) {
+            syns.add(
+                    new InputPatternSynapse()
+                            .setWeight(i)
+                            .init(new TokenNeuron().init(m, "IN " + i), out)
+            );
+        }
+
+        syns.get(2).setWeight(3.5);
+
+        assertEquals(-5.0, syns.get(0).getSumOfLowerWeights(), 0.0001);
+        assertEquals(-4.0, syns.get(1).getSumOfLowerWeights(), 0.0001);
+        assertEquals(-2.0, syns.get(2).getSumOfLowerWeights(), 0.0001);
+        assertEquals(1.5, syns.get(3).getSumOfLowerWeights(), 0.0001);
+
+        assertEquals(OUTPUT, syns.get(0).getStoredAt());
+        assertEquals(OUTPUT, syns.get(1).getStoredAt());
+        assertEquals(INPUT, syns.get(2).getStoredAt());
+        assertEquals(INPUT, syns.get(3).getStoredAt());
+    }
+}
@@ -19,26 +19,38 @@ package network.aika;
 
 
 import network.aika.callbacks.SuspensionCallback;
+import network.aika.elements.neurons.Neuron;
 import network.aika.elements.neurons.NeuronProvider;
+import network.aika.elements.neurons.PatternNeuron;
+import network.aika.elements.neurons.SynapsePages;
 import network.aika.elements.synapses.InputPatternSynapse;
+import network.aika.elements.synapses.PositiveFeedbackSynapse;
 import network.aika.elements.synapses.Synapse;
 import network.aika.elements.neurons.BindingNeuron;
 import network.aika.elements.neurons.TokenNeuron;
+import network.aika.fields.ListenerFieldLink;
 import network.aika.text.Document;
 import network.aika.utils.Writable;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import static network.aika.TestUtils.createPositiveFeedbackSynapse;
 import static network.aika.TestUtils.getConfig;
 import static network.aika.TestUtils.setBias;
 import static network.aika.direction.Direction.INPUT;
 import static network.aika.direction.Direction.OUTPUT;
 import static network.aika.elements.neurons.SuspensionMode.SAVE;
+import static network.aika.steps.Phase.INFERENCE;
 
 /**
  *
@@ -89,6 +101,298 @@ public class SuspensionTest {
         doc.addToken((TokenNeuron) inStrong.getNeuron(), 0, 0, 4);
     }
 
+    @Test
+    public void testPartialReactivation() {
+        Model m = new Model(new DummySuspensionCallback());
+
+        NeuronProvider in = new TokenNeuron().init(m, "IN").getProvider();
+
+        List<NeuronProvider> outs = new ArrayList<>();
+        for(int i = 0; i < SynapsePages.PAGE_SIZE + 6; i++) {
+            NeuronProvider out = new BindingNeuron().init(m, "OUT " + i).getProvider();
+            setBias(out.getNeuron(), 1.0);
+
+            Synapse s = new InputPatternSynapse()
+                    .setWeight(10.0)
+                    .init(in.getNeuron(), out.getNeuron())
+                    .adjustBias();
+
+            Assertions.assertEquals(INPUT, s.getStoredAt());
+            outs.add(out);
+        }
+
+        outs.forEach(out -> out.suspend(SAVE));
+        in.suspend(SAVE);
+
+        in = m.lookupNeuronProvider(in.getId());
+        Assertions.assertEquals(2, in.getNeuron().getNumberOfPendingSynapsePages());
+
+        NeuronProvider lastOut = outs.get(outs.size() - 1);
+        Assertions.assertNotNull(in.getNeuron().getOutputSynapse(lastOut));
+        Assertions.assertEquals(1, in.getNeuron().getNumberOfPendingSynapsePages());
+
+        Assertions.assertEquals(outs.size(), in.getNeuron().getOutputSynapses().size());
+        Assertions.assertEquals(0, in.getNeuron().getNumberOfPendingSynapsePages());
+        Assertions.assertFalse(in.getNeuron().isModified());
+    }
+
+    @Test
+    public void testPeerLookupLoadsPendingPages() {
+        Model m = new Model(new DummySuspensionCallback());
+
+        NeuronProvider in = new TokenNeuron().init(m, "IN").getProvider();
+        BindingNeuron out = new BindingNeuron().init(m, "OUT");
+
+        Synapse s = new InputPatternSynapse()
+                .setWeight(1.0)
+                .init(in.getNeuron(), out);
+        setBias(out, -5.0);
+
+        Assertions.assertEquals(OUTPUT, s.getStoredAt());
+
+        out.getProvider().suspend(SAVE);
+        Assertions.assertEquals(0, in.getNeuron().getOutputSynapses().size());
+
+        Neuron<?> outN = m.lookupNeuronProvider(out.getId()).getNeuron();
+        Assertions.assertEquals(1, outN.getNumberOfPendingSynapsePages());
+
+        Assertions.assertEquals(1, in.getNeuron().getOutputSynapses().size());
+        Assertions.assertEquals(0, outN.getNumberOfPendingSynapsePages());
+    }
+
+    @Test
+    public void testLinkingLoadsOnlyRequiredPages() {
+        Model m = new Model(new DummySuspensionCallback());
+
+        NeuronProvider in = new TokenNeuron().init(m, "IN").getProvider();
+        NeuronProvider other = new TokenNeuron().init(m, "OTHER").getProvider();
+
+        List<NeuronProvider> outs = new ArrayList<>();
+        for(int i = 0; i < SynapsePages.PAGE_SIZE + 6; i++) {
+            NeuronProvider out = new BindingNeuron().init(m, "OUT " + i).getProvider();
+
+            // Only the output neurons of the second page are able to propagate.
+            setBias(out.getNeuron(), i < SynapsePages.PAGE_SIZE ? 0.0 : 30.0);
+
+            new InputPatternSynapse()
+                    .setWeight(10.0)
+                    .init(in.getNeuron(), out.getNeuron())
+                    .adjustBias();
+
+            // Keeps the provider of the suspended output neuron registered.
+            new InputPatternSynapse()
+                    .setWeight(10.0)
+                    .init(other.getNeuron(), out.getNeuron())
+                    .adjustBias();
+
+            outs.add(out);
+        }
+
+        outs.forEach(out -> out.suspend(SAVE));
+        in.suspend(SAVE);
+
+        Neuron<?> inN = m.lookupNeuronProvider(in.getId()).getNeuron();
+        Assertions.assertEquals(2, inN.getNumberOfPendingSynapsePages());
+
+        Assertions.assertEquals(6, inN.getOutputSynapseIndex().size());
+        Assertions.assertEquals(1, inN.getNumberOfPendingSynapsePages());
+        Assertions.assertTrue(outs.get(0).isSuspended());
+    }
+
+    @Test
+    public void testLinkingLoadsPagesOfBindingNeuronsAboveThresholdByFeedback() {
+        Model m = new Model(new DummySuspensionCallback());
+
+        NeuronProvider in = new TokenNeuron().init(m, "IN").getProvider();
+        NeuronProvider other = new TokenNeuron().init(m, "OTHER").getProvider();
+        PatternNeuron p = new PatternNeuron().init(m, "P");
+        p.getProvider(true);
+
+        BindingNeuron outN = new BindingNeuron().init(m, "OUT");
+        NeuronProvider out = outN.getProvider();
+        setBias(outN, 5.0);
+
+        new InputPatternSynapse()
+                .setWeight(10.0)
+                .init(in.getNeuron(), outN)
+                .adjustBias();
+
+        // Keeps the provider of the suspended output neuron registered.
+        new InputPatternSynapse()
+                .setWeight(10.0)
+                .init(other.getNeuron(), outN)
+                .adjustBias();
+
+        // The propagate pre-net of IN is 5 - 20 + 10 = -5, only the dummy weight of the positive feedback
+        // synapse lifts it above zero.
+        createPositiveFeedbackSynapse(new PositiveFeedbackSynapse(), p, outN, 0.0, 10.0);
+
+        outN = null;
+        out.suspend(SAVE);
+        in.suspend(SAVE);
+        Assertions.assertTrue(out.isSuspended());
+
+        Document doc = new Document(m, "IN");
+        doc.setConfig(getConfig().setInferenceOnly(true));
+        TokenNeuron inN = (TokenNeuron) m.lookupNeuronProvider(in.getId()).getNeuron();
+        doc.addToken(inN, 0, 0, 2).setNet(10.0);
+        doc.process(INFERENCE);
+
+        Assertions.assertFalse(out.isSuspended());
+        Assertions.assertTrue(
+                doc.getActivations().stream()
+                        .anyMatch(act -> act.getNeuron().getId().equals(out.getId()))
+        );
+    }
+
+    @Test
+    public void testLinkingDoesNotReactivateOutputNeuronsBelowThreshold() {
+        Model m = new Model(new DummySuspensionCallback());
+
+        TokenNeuron inN = new TokenNeuron().init(m, "IN");
+        inN.getProvider(true);
+
+        BindingNeuron outN = new BindingNeuron().init(m, "OUT");
+        NeuronProvider out = outN.getProvider();
+        setBias(outN, 5.0);
+
+        new InputPatternSynapse()
+                .setWeight(10.0)
+                .init(inN, outN)
+                .adjustBias();
+
+        // The propagate pre-net of IN is 5 - 10 - 10 + 10 = -5.
+        new InputPatternSynapse()
+                .setWeight(10.0)
+                .init(new TokenNeuron().init(m, "OTHER"), outN)
+                .adjustBias();
+
+        outN = null;
+        out.suspend(SAVE);
+        Assertions.assertTrue(out.isSuspended());
+
+        Document doc = new Document(m, "IN");
+        doc.setConfig(getConfig().setInferenceOnly(true));
+        doc.addToken(inN, 0, 0, 2).setNet(10.0);
+        doc.process(INFERENCE);
+
+        Assertions.assertTrue(out.isSuspended());
+    }
+
+    @Test
+    public void testLatentLinkingListenersAreRegisteredOnce() {
+        Model m = new Model(new DummySuspensionCallback());
+
+        NeuronProvider in = new TokenNeuron().init(m, "IN").getProvider(true);
+        NeuronProvider out = new BindingNeuron().init(m, "OUT").getProvider();
+        setBias(out.getNeuron(), 1.0);
+
+        Synapse s = new InputPatternSynapse()
+                .setWeight(10.0)
+                .init(in.getNeuron(), out.getNeuron())
+                .adjustBias();
+
+        Assertions.assertEquals(INPUT, s.getStoredAt());
+        Assertions.assertEquals(1, countLatentLinkingListeners(s));
+
+        out.suspend(SAVE);
+        Assertions.assertEquals(0, countLatentLinkingListeners(s));
+
+        m.lookupNeuronProvider(out.getId()).getNeuron();
+        Assertions.assertEquals(1, countLatentLinkingListeners(s));
+
+        s.unlink();
+        Assertions.assertEquals(0, countLatentLinkingListeners(s));
+    }
+
+    private static long countLatentLinkingListeners(Synapse s) {
+        return s.getWeight().getReceivers().stream()
+                .filter(fl -> fl instanceof ListenerFieldLink)
+                .filter(fl -> ((ListenerFieldLink) fl).getListenerName().endsWith("(latent linking)"))
+                .count();
+    }
+
+    @Test
+    public void testDeltaSave() throws IOException {
+        Model m = new Model();
+
+        NeuronProvider in = new TokenNeuron().init(m, "IN").getProvider();
+
+        List<NeuronProvider> outs = new ArrayList<>();
+        List<Synapse> syns = new ArrayList<>();
+        for(int i = 0; i < SynapsePages.PAGE_SIZE + 6; i++) {
+            NeuronProvider out = new BindingNeuron().init(m, "OUT " + i).getProvider();
+            setBias(out.getNeuron(), 1.0);
+
+            syns.add(
+                    new InputPatternSynapse()
+                            .setWeight(10.0)
+                            .init(in.getNeuron(), out.getNeuron())
+                            .adjustBias()
+            );
+            outs.add(out);
+        }
+
+        in.save();
+        int recordSize = m.getSuspensionCallback().retrieve(in.getId()).length;
+
+        syns.get(3).setWeight(12.0);
+        Assertions.assertTrue(in.getNeuron().isModified());
+        Assertions.assertFalse(in.getNeuron().isHeaderModified());
+
+        in.save();
+        List<byte[]> deltas = m.getSuspensionCallback().retrieveDeltas(in.getId());
+        Assertions.assertEquals(1, deltas.size());
+        Assertions.assertTrue(deltas.get(0).length * 10 < recordSize);
+
+        outs.forEach(out -> out.suspend(SAVE));
+        in.suspend(SAVE);
+
+        in = m.lookupNeuronProvider(in.getId());
+        Assertions.assertEquals(
+                12.0,
+                in.getNeuron().getOutputSynapse(outs.get(3)).getWeight().getCurrentValue()
+        );
+        Assertions.assertEquals(
+                10.0,
+                in.getNeuron().getOutputSynapse(outs.get(4)).getWeight().getCurrentValue()
+        );
+        Assertions.assertEquals(outs.size(), in.getNeuron().getOutputSynapses().size());
+    }
+
+    @Test
+    public void testScanNeurons() {
+        Model m = new Model();
+
+        NeuronProvider in = new TokenNeuron().init(m, "IN").getProvider();
+        for(int i = 0; i < 3; i++) {
+            NeuronProvider out = new BindingNeuron().init(m, "OUT " + i).getProvider();
+            setBias(out.getNeuron(), 1.0);
+
+            new InputPatternSynapse()
+                    .setWeight(10.0)
+                    .init(in.getNeuron(), out.getNeuron())
+                    .adjustBias();
+        }
+
+        m.suspendAll(SAVE);
+        int numRegistered = m.providers.size();
+
+        Map<String, Neuron> neurons = m.scanNeurons()
+                .collect(Collectors.toMap(Neuron::getLabel, n -> n));
+
+        Assertions.assertEquals(4, neurons.size());
+        Assertions.assertTrue(neurons.get("IN") instanceof TokenNeuron);
+        Assertions.assertEquals(3, neurons.get("IN").getOutputSynapses().size());
+        Assertions.assertEquals(numRegistered, m.providers.size());
+
+        Assertions.assertEquals(
+                4,
+                m.scanNeurons(3).parallelStream()
+                        .mapToLong(Stream::count)
+                        .sum()
+        );
+    }
 
     public static class DummySuspensionCallback implements SuspensionCallback {
         public AtomicInteger currentId = new AtomicInteger(0);
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.elements.neurons.BindingNeuron;
+import network.aika.elements.neurons.NeuronProvider;
+import network.aika.elements.neurons.PatternNeuron;
+import network.aika.elements.synapses.PatternSynapse;
+import network.aika.elements.synapses.SynapseColumns;
+import network.aika.sign.Sign;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static network.aika.elements.neurons.SuspensionMode.SAVE;
+import static network.aika.elements.synapses.SynapseColumns.*;
+
+/**
+ *
+ * @author Lukas Molzberger
+ */
+public class SynapseColumnsTest {
+
+    @Test
+    public void testPatternSynapseStatistics() {
+        Model m = new Model();
+        m.setSynapseColumns(SynapseColumns.direct());
+
+        NeuronProvider in = new BindingNeuron().init(m, "B").getProvider(true);
+        NeuronProvider out = new PatternNeuron().init(m, "P").getProvider(true);
+
+        PatternSynapse patternSynapse = new PatternSynapse()
+                .init(in.getNeuron(), out.getNeuron());
+        patternSynapse.setFrequency(Sign.POS, Sign.POS, 12.0);
+        patternSynapse.updateFrequencyForIandO(true, true);
+        Assertions.assertEquals(13, (int) patternSynapse.getFrequency(Sign.POS, Sign.POS, 0.0));
+        Assertions.assertEquals(1, m.getSynapseColumns().size());
+
+        patternSynapse = null;
+        in.suspend(SAVE);
+        out.suspend(SAVE);
+        Assertions.assertEquals(1, m.getSynapseColumns().size());
+
+        out = m.lookupNeuronProvider(out.getId());
+        patternSynapse = (PatternSynapse) out.getNeuron().getInputSynapse(m.lookupNeuronProvider(in.getId()));
+        Assertions.assertEquals(13, (int) patternSynapse.getFrequency(Sign.POS, Sign.POS, 0.0));
+        Assertions.assertEquals(1, m.getSynapseColumns().size());
+
+        patternSynapse.unlink();
+        Assertions.assertEquals(0, m.getSynapseColumns().size());
+    }
+
+    @Test
+    public void testLongColumns() {
+        SynapseColumns columns = SynapseColumns.direct();
+        int slot = columns.acquire(1, 2);
+
+        Assertions.assertEquals(NULL_LONG, columns.getLong(slot, SAMPLE_SPACE_LAST_POSITION));
+        Assertions.assertEquals(0, columns.getLong(slot, SAMPLE_SPACE_DECAY_REFERENCE));
+        Assertions.assertTrue(Double.isNaN(columns.getDouble(slot, SAMPLE_SPACE_ALPHA)));
+
+        columns.putLong(slot, SAMPLE_SPACE_LAST_POSITION, Long.MAX_VALUE - 1);
+        Assertions.assertEquals(Long.MAX_VALUE - 1, columns.getLong(slot, SAMPLE_SPACE_LAST_POSITION));
+    }
+
+    @Test
+    public void testReopen() throws IOException {
+        Path file = Files.createTempFile("synapse-columns", ".bin");
+        try {
+            SynapseColumns columns = SynapseColumns.mapped(file);
+            for(int i = 0; i < 5000; i++)
+                columns.putDouble(columns.acquire(i, i + 1), FREQUENCY_I_POS_O_POS, i);
+            columns.release(3, 4);
+            columns.close();
+
+            columns = SynapseColumns.mapped(file);
+            Assertions.assertEquals(4999, columns.size());
+            Assertions.assertEquals(-1, columns.lookup(3, 4));
+            Assertions.assertEquals(4321.0, columns.getDouble(columns.lookup(4321, 4322), FREQUENCY_I_POS_O_POS));
+
+            int slot = columns.acquire(3, 4);
+            Assertions.assertEquals(0.0, columns.getDouble(slot, FREQUENCY_I_POS_O_POS));
+            Assertions.assertEquals(5000, columns.size());
+            columns.close();
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -16,10 +16,14 @@
  */
 package network.aika;
 
+import network.aika.elements.activations.Activation;
+import network.aika.elements.activations.ActivationArena;
 import network.aika.elements.neurons.InhibitoryNeuron;
 import network.aika.text.Document;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static network.aika.TestHelper.initPatternTheCat;
@@ -39,6 +43,31 @@ public class TheCatTest {
         }
     }
 
+    @Test
+    public void testActivationsAfterDisconnect() {
+        Model m = new Model();
+        initPatternTheCat(m, null, null, 0);
+
+        Document doc = new Document(m, "the cat");
+        doc.setConfig(getConfig().setInferenceOnly(true));
+        processTokens(m, doc, List.of("the", "cat"));
+
+        List<Activation> acts = new ArrayList<>(doc.getActivations());
+        Assertions.assertFalse(acts.isEmpty());
+
+        doc.disconnect();
+        Assertions.assertEquals(acts, new ArrayList<>(doc.getActivations()));
+        Assertions.assertSame(acts.get(0), doc.getActivation(acts.get(0).getId()));
+
+        ActivationArena arena = doc.getArena();
+        doc.release();
+        Assertions.assertTrue(doc.getActivations().isEmpty());
+
+        Document nextDoc = new Document(m, "cat");
+        Assertions.assertSame(arena, nextDoc.getArena());
+        Assertions.assertTrue(nextDoc.getActivations().isEmpty());
+    }
+
     private void performTest(int variant) {
         Model m = new Model();
 
@@ -56,7 +56,7 @@ public class PatternNeuronPropertyPanel<E extends PatternNeuron> extends Conjunc
     }
 
     private String probabilityToString(Sign s, PatternNeuron n, Range range) {
-        double N = n.getSampleSpace().getN(range);
+        double N = n.getSampleSpace().getN(range, n.getModel());
         if(N == 0.0)
             return NOT_SET_STR;
 
@@ -68,7 +68,7 @@ public class PatternNeuronPropertyPanel<E extends PatternNeuron> extends Conjunc
     }
 
     private String surprisalToString(Sign s, PatternNeuron n, Range range) {
-        double N = n.getSampleSpace().getN(range);
+        double N = n.getSampleSpace().getN(range, n.getModel());
         if(N == 0.0)
             return NOT_SET_STR;
 
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package benchmark;
+
+import network.aika.utils.BetaQuantile;
+import network.aika.utils.Bound;
+
+import static network.aika.utils.Utils.surprisal;
+
+/**
+ * Error-vs-speed benchmark of the Beta-quantile probability bounds. For each implementation the bounds
+ * of a grid of frequencies and sample sizes are computed twice, once with a cold and once with a warm
+ * cache, and compared against the exact solution.
+ *
+ * @author Lukas Molzberger
+ */
+public class BetaQuantileBenchmark {
+
+    private static final int MAX_N = 1000;
+    private static final int N_STEP = 5;
+    private static final int F_STEP = 11;
+
+    public static void main(String[] args) {
+        for(BetaQuantile bq: BetaQuantile.values()) {
+            for(String pass: new String[] {"cold", "warm"}) {
+                long start = System.nanoTime();
+                double sum = 0.0;
+                for(int n = 1; n < MAX_N; n += N_STEP) {
+                    for(int f = 0; f <= n; f += F_STEP)
+                        sum += Bound.UPPER.probability(f, n, bq);
+                }
+                long duration = System.nanoTime() - start;
+
+                System.out.println(bq + " (" + pass + "): " + (duration / 1000000) + "ms  (checksum: " + sum + ")");
+            }
+            reportError(bq);
+        }
+    }
+
+    private static void reportError(BetaQuantile bq) {
+        double maxError = 0.0;
+        double maxSurprisalError = 0.0;
+        for(int n = 1; n < MAX_N; n += N_STEP) {
+            for(int f = 0; f <= n; f += F_STEP) {
+                double exact = Bound.UPPER.probability(f, n, BetaQuantile.EXACT);
+                double p = Bound.UPPER.probability(f, n, bq);
+
+                maxError = Math.max(maxError, Math.abs(exact - p));
+                maxSurprisalError = Math.max(maxSurprisalError, Math.abs(surprisal(exact) - surprisal(p)));
+            }
+        }
+
+        System.out.println(bq + " max error: " + maxError + "  max surprisal error: " + maxSurprisalError);
+    }
+}
@@ -25,6 +25,8 @@ import network.aika.elements.activations.PatternActivation;
 import network.aika.elements.activations.TokenActivation;
 import network.aika.elements.links.CategoryLink;
 import network.aika.elements.links.Link;
+import network.aika.elements.neurons.Range;
+import network.aika.elements.neurons.TokenNeuron;
 import network.aika.sign.Sign;
 import network.aika.steps.Phase;
 import network.aika.text.Document;
@@ -135,27 +137,22 @@ public class SyllablesExperiment {
         model.setN(0);
 
         // Counting letters loop
-        inputs.forEach(w -> {
-            Document doc = initDocument(model, w);
-            doc.getConfig()
-                    .setTrainingEnabled(false)
-                    .setMetaInstantiationEnabled(false)
-                    .setCountingEnabled(true);
-
-//            AIKADebugger.createAndShowGUI(doc);
+        Config countingConfig = getConfig()
+                .setAlpha(null)
+                .setCountingEnabled(true);
 
-            processTokens(
-                    syllableModel,
-                    doc,
-                    convertToCharTokens(w),
-                    0
-            );
-
-            doc.process(Phase.ANNEAL);
+        inputs.forEach(w -> {
+            List<TokenNeuron> tokenNeurons = new ArrayList<>();
+            List<Range> ranges = new ArrayList<>();
+
+            int i = 0;
+            for(String t: convertToCharTokens(w)) {
+                tokenNeurons.add(syllableModel.lookupInputToken(t));
+                ranges.add(new Range(i, i + t.length()));
+                i += t.length();
+            }
 
-            doc.postProcessing();
-            doc.updateModel();
-            doc.disconnect();
+            model.countTokens(tokenNeurons, ranges, w.length(), countingConfig);
         });
 
         syllableModel.initMeta();
@@ -169,7 +166,8 @@ public class SyllablesExperiment {
             doc.getConfig()
                     .setTrainingEnabled(true)
                     .setMetaInstantiationEnabled(true)
-                    .setCountingEnabled(true);
+                    .setCountingEnabled(true)
+                    .setParallelCountingEnabled(true);
 
             AIKADebugger debugger = null;
             System.out.println(counter[0] + " " + w);
@@ -220,7 +218,7 @@ public class SyllablesExperiment {
 
             doc.postProcessing();
             doc.updateModel();
-            doc.disconnect();
+            doc.release();
 
             counter[0]++;
         });
@@ -17,7 +17,8 @@
 package syllable.logger;
 
 import network.aika.elements.links.NegativeFeedbackLink;
-import network.aika.fields.Field;
+import network.aika.steps.thought.AnnealingController;
+import network.aika.steps.thought.AnnealingController.ScheduleEntry;
 import network.aika.text.Document;
 import network.aika.utils.Utils;
 import org.apache.commons.csv.CSVFormat;
@@ -47,6 +48,10 @@ public class AnnealingLogger {
 
             List<String> headerLabels = new ArrayList<>();
             headerLabels.add("Anneal Value");
+            headerLabels.add("Step Scale");
+            headerLabels.add("Flips");
+            headerLabels.add("Max Net Delta");
+            headerLabels.add("Stable");
 
             headerLabels.addAll(createHeader(doc));
 
@@ -95,12 +100,24 @@ public class AnnealingLogger {
     }
 
     public Stream<NegativeFeedbackLink> getNegativeFeedbackLinks(Document doc) {
-        return doc.getAnnealing()
-                .getReceivers()
-                .stream()
-                .filter(fl -> fl.getOutput() instanceof Field)
-                .map(fl ->  (Field) fl.getOutput())
-                .map(f -> (NegativeFeedbackLink) f.getReference());
+        return doc.getNegativeFeedbackLinks();
+    }
+
+    private List<String> createScheduleEntry(Document doc) {
+        AnnealingController ac = doc.getAnnealingController();
+        ScheduleEntry se = ac != null ?
+                ac.getLastEntry() :
+                null;
+
+        if(se == null)
+            return List.of("", "", "", "");
+
+        return List.of(
+                "" + Utils.round(se.getStepScale()),
+                "" + se.getFlips(),
+                "" + Utils.round(se.getMaxNetDelta()),
+                "" + se.isStable()
+        );
     }
 
     public void close() {
@@ -115,6 +132,7 @@ public class AnnealingLogger {
         try {
             List<String> entry = new ArrayList<>();
             entry.add("" + Utils.round(doc.getAnnealing().getCurrentValue()));
+            entry.addAll(createScheduleEntry(doc));
             entry.addAll(createEntry(doc));
 
             printer.printRecord(entry.toArray());